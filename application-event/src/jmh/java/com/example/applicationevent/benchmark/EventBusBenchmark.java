@@ -0,0 +1,87 @@
+package com.example.applicationevent.benchmark;
+
+import com.example.applicationevent.event.bus.RingBufferEventBus;
+import com.example.applicationevent.event.bus.WaitStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@code ApplicationEventPublisher.publishEvent} with {@link RingBufferEventBus#publish(Object)} for the same
+ * {@code @EventListener} beans.
+ * <p>
+ * {@code publishEvent} calls the listeners on the publishing thread, the bus hands the event to the thread of the
+ * consumer group, so the bus numbers are the rate a writer can sustain while the group keeps up. Run it with
+ * {@code -t 4} for concurrent writers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventBusBenchmark {
+
+    @Param({"1", "4", "16"})
+    private int listeners;
+
+    @Param({"blocking", "yielding"})
+    private String waitStrategy;
+
+    private AnnotationConfigApplicationContext context;
+
+    private RingBufferEventBus bus;
+
+    public record PriceChanged(long id, long price) {
+    }
+
+    public static class CountingListener {
+        private long count;
+
+        @EventListener
+        public void on(PriceChanged event) {
+            count += event.price();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext();
+        for (int i = 0; i < listeners; i++) {
+            context.registerBean("listener" + i, CountingListener.class);
+        }
+        context.registerBean(RingBufferEventBus.class, () -> new RingBufferEventBus(context, 1024, "multi",
+                WaitStrategy.of(waitStrategy), Duration.ofSeconds(5)));
+        context.refresh();
+        bus = context.getBean(RingBufferEventBus.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void publishEvent() {
+        context.publishEvent(new PriceChanged(1, 100));
+    }
+
+    @Benchmark
+    public void ringBuffer() {
+        bus.publish(new PriceChanged(1, 100));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.applicationevent.config;
+
+import com.example.applicationevent.executor.ListenerExecutorFactory;
+import com.example.applicationevent.executor.StripedExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Shared, bounded executor of the event listeners, off the request threads.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor eventListenerExecutor(@Value("${events.executor.core-size}") int coreSize,
+                                                        @Value("${events.executor.max-size}") int maxSize,
+                                                        @Value("${events.executor.queue-capacity}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("event-");
+        // Let queued listeners finish on shutdown, their transactions are already committed
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executors of the outbox relay deliveries, one per batch listener bean and named after it. A listener runs at most
+     * {@code events.listener.<bean name>.max-concurrency} deliveries at a time, {@code events.outbox.max-concurrency}
+     * unless set.
+     */
+    @Bean
+    public ListenerExecutorFactory batchListenerExecutors(
+            ThreadPoolTaskExecutor eventListenerExecutor,
+            @Value("${events.outbox.max-concurrency}") int maxConcurrency,
+            @Value("${events.outbox.batch-size}") int batchSize,
+            Environment environment,
+            MeterRegistry meterRegistry) {
+        // A batch has one task per batch listener, the queue never rejects them
+        return new ListenerExecutorFactory(eventListenerExecutor,
+                listener -> environment.getProperty("events.listener." + listener + ".max-concurrency", Integer.class,
+                        maxConcurrency),
+                batchSize, meterRegistry);
+    }
+
+    /**
+     * Lanes of the outbox relay deliveries to the event listeners, the events of one aggregate (e.g. one user) are
+     * delivered in order on one lane, other aggregates in parallel on the other lanes.
+     */
+    @Bean
+    public StripedExecutor outboxRelayLanes(@Value("${events.outbox.lanes}") int lanes,
+                                            @Value("${events.outbox.batch-size}") int batchSize,
+                                            @Value("${events.outbox.lane-shutdown-timeout}") Duration shutdownTimeout,
+                                            MeterRegistry meterRegistry) {
+        // A batch has at most one group per event, so even all groups on one lane never fill its queue
+        return new StripedExecutor("outbox-relay", lanes, batchSize, shutdownTimeout, meterRegistry);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.applicationevent.config;
+
+import com.example.applicationevent.event.bus.RingBufferEventBus;
+import com.example.applicationevent.event.bus.WaitStrategy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class EventBusConfig {
+
+    /**
+     * In-process event bus for high-rate events, next to {@code ApplicationEventPublisher}.
+     * <p>
+     * None of the events of this application are published at such rates, so the bus is only created with
+     * {@code events.bus.enabled=true}. Its groups would otherwise start a thread for every listener bean for nothing.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "events.bus.enabled", havingValue = "true")
+    public RingBufferEventBus ringBufferEventBus(ConfigurableApplicationContext applicationContext,
+                                                 @Value("${events.bus.buffer-size}") int bufferSize,
+                                                 @Value("${events.bus.writers}") String writers,
+                                                 @Value("${events.bus.wait-strategy}") String waitStrategy,
+                                                 @Value("${events.bus.shutdown-timeout}") Duration shutdownTimeout) {
+        return new RingBufferEventBus(applicationContext, bufferSize, writers, WaitStrategy.of(waitStrategy),
+                shutdownTimeout);
+    }
+}
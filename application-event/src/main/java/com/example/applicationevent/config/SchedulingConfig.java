@@ -0,0 +1,47 @@
+package com.example.applicationevent.config;
+
+import com.example.applicationevent.event.outbox.BackoffPolicy;
+import com.example.applicationevent.executor.TimerWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    /**
+     * Delay between the delivery attempts of a failed outbox event.
+     */
+    @Bean
+    public BackoffPolicy outboxBackoffPolicy(@Value("${events.retry.initial-delay}") Duration initialDelay,
+                                             @Value("${events.retry.multiplier}") double multiplier,
+                                             @Value("${events.retry.max-delay}") Duration maxDelay,
+                                             @Value("${events.retry.jitter}") double jitter) {
+        return new BackoffPolicy(initialDelay, multiplier, maxDelay, jitter);
+    }
+
+    /**
+     * Wakes the outbox relay up when a retry is due. The expired tasks run on the scheduler thread of the polls, so a
+     * retry never runs next to a poll.
+     */
+    @Bean(destroyMethod = "stop")
+    public TimerWheel retryTimerWheel(TaskScheduler taskScheduler,
+                                      @Value("${events.retry.wheel.tick}") Duration tick,
+                                      @Value("${events.retry.wheel.size}") int wheelSize,
+                                      MeterRegistry meterRegistry) {
+        TimerWheel timerWheel = new TimerWheel("retry-timer", tick, wheelSize,
+                task -> taskScheduler.schedule(task, Instant.now()));
+        Gauge.builder("events.retry.pending", timerWheel, TimerWheel::getPending)
+                .description("Retries waiting on the timer wheel")
+                .register(meterRegistry);
+        return timerWheel;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.applicationevent.controller;
+
+import com.example.applicationevent.dto.DeadLetterReplayRequest;
+import com.example.applicationevent.dto.DeadLetterReplayResult;
+import com.example.applicationevent.entity.DeadLetterEvent;
+import com.example.applicationevent.event.outbox.DeadLetterStore;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Admin endpoints of the outbox events that failed on every delivery attempt.
+ */
+@RestController
+@RequestMapping("/admin/dead-letters")
+public class DeadLetterController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final DeadLetterStore deadLetterStore;
+
+    public DeadLetterController(DeadLetterStore deadLetterStore) {
+        this.deadLetterStore = deadLetterStore;
+    }
+
+    /**
+     * The oldest dead letters, at most {@code limit} of them, from 1 to 1000.
+     */
+    @GetMapping
+    public List<DeadLetterEvent> list(@RequestParam(required = false) String eventType,
+                                      @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        return deadLetterStore.findOldest(eventType, limit);
+    }
+
+    /**
+     * Put the selected dead letters back into the outbox, all of them without a body.
+     */
+    @PostMapping("/replay")
+    public DeadLetterReplayResult replay(@RequestBody(required = false) DeadLetterReplayRequest request) {
+        DeadLetterReplayRequest selection = request != null ? request : new DeadLetterReplayRequest();
+        return new DeadLetterReplayResult(deadLetterStore.replay(selection.getIds(), selection.getEventType()));
+    }
+}
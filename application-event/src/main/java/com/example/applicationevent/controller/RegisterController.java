@@ -1,39 +1,39 @@
 package com.example.applicationevent.controller;
 
+import com.example.applicationevent.dto.BulkRegistrationResult;
 import com.example.applicationevent.dto.UserRegisterDTO;
-import com.example.applicationevent.entity.User;
-import com.example.applicationevent.event.UserRegisteredEvent;
-import com.example.applicationevent.repository.UserRepository;
-import org.springframework.context.ApplicationEventPublisher;
+import com.example.applicationevent.service.BulkUserRegistrationService;
+import com.example.applicationevent.service.UserRegistrationService;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.InputStream;
+
 @RestController
 public class RegisterController {
 
-    private final UserRepository userRepository;
+    private final UserRegistrationService userRegistrationService;
 
-    private final ApplicationEventPublisher publisher;
+    private final BulkUserRegistrationService bulkUserRegistrationService;
 
-    public RegisterController(UserRepository userRepository, ApplicationEventPublisher publisher) {
-        this.userRepository = userRepository;
-        this.publisher = publisher;
+    public RegisterController(UserRegistrationService userRegistrationService,
+                              BulkUserRegistrationService bulkUserRegistrationService) {
+        this.userRegistrationService = userRegistrationService;
+        this.bulkUserRegistrationService = bulkUserRegistrationService;
     }
 
     @PostMapping("/register")
     public void registerUser(@RequestBody UserRegisterDTO userRegisterDTO) {
-        User user = User.builder()
-                .firstName(userRegisterDTO.getFirstName())
-                .lastName(userRegisterDTO.getLastName())
-                .email(userRegisterDTO.getEmail())
-                .password(userRegisterDTO.getPassword())
-                .role("USER")
-                .build();
-
-        userRepository.save(user);
-
-        // trigger and publish event
-        publisher.publishEvent(new UserRegisteredEvent(this, user));
+        userRegistrationService.register(userRegisterDTO);
+    }
+
+    /**
+     * Register a JSON array of users, read while it is uploaded instead of bound as one list.
+     */
+    @PostMapping(path = "/register/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkRegistrationResult registerUsers(InputStream body) {
+        return bulkUserRegistrationService.register(body);
     }
 }
@@ -0,0 +1,15 @@
+package com.example.applicationevent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkRegistrationFailure {
+    // Position of the user in the uploaded array, from 0
+    private long index;
+    private String email;
+    private String reason;
+}
@@ -0,0 +1,20 @@
+package com.example.applicationevent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkRegistrationResult {
+    private long received;
+    private long registered;
+    private long failed;
+    private int chunks;
+    private long durationMillis;
+    // The first failures, at most users.bulk.max-reported-failures
+    private List<BulkRegistrationFailure> failures;
+}
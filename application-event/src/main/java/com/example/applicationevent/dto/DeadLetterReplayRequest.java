@@ -0,0 +1,16 @@
+package com.example.applicationevent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeadLetterReplayRequest {
+    // The dead letters to replay, or all of the event type when empty, or all when neither is given
+    private List<Long> ids;
+    private String eventType;
+}
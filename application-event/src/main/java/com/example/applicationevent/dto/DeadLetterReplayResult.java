@@ -0,0 +1,12 @@
+package com.example.applicationevent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeadLetterReplayResult {
+    private long replayed;
+}
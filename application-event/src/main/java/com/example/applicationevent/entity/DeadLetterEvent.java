@@ -0,0 +1,39 @@
+package com.example.applicationevent.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * An outbox event whose delivery failed on every attempt, parked until an admin replays it.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "t_dead_letter_event")
+public class DeadLetterEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long outboxEventId;
+    private String aggregateType;
+    private String aggregateId;
+    private String eventType;
+
+    @Lob
+    private String payload;
+
+    private Instant createdAt;
+    private int attempts;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private Instant deadLetteredAt;
+}
@@ -0,0 +1,41 @@
+package com.example.applicationevent.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * An event written in the same transaction as the change it describes, delivered later by the outbox relay.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "t_outbox_event",
+        indexes = @Index(name = "ix_outbox_event_aggregate", columnList = "aggregateType, aggregateId"))
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String aggregateType;
+    private String aggregateId;
+    private String eventType;
+
+    // A bulk registration chunk carries all its users
+    @Lob
+    private String payload;
+
+    private Instant createdAt;
+
+    // Failed delivery attempts, the next one is not made before nextAttemptAt
+    private int attempts;
+    private Instant nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+}
@@ -0,0 +1,23 @@
+package com.example.applicationevent.event;
+
+import com.example.applicationevent.entity.User;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * The users registered by one chunk of a bulk registration, published once for the chunk instead of once per user.
+ */
+public class UsersRegisteredEvent extends ApplicationEvent {
+
+    private final List<User> users;
+
+    public UsersRegisteredEvent(Object source, List<User> users) {
+        super(source);
+        this.users = users;
+    }
+
+    public List<User> getUsers() {
+        return users;
+    }
+}
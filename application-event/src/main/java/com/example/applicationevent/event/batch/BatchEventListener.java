@@ -0,0 +1,20 @@
+package com.example.applicationevent.event.batch;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Receives the events of one type in batches instead of one by one, so per-call costs like an outbound email
+ * request are paid once per batch.
+ * <p>
+ * The {@code OutboxRelay} hands every batch it delivers to the beans implementing this interface. A batch holds at most
+ * {@code events.outbox.batch-size} events, in the order they were written. After an exception, parts of the batch are
+ * delivered again to find the events that fail, so an event may be received more than once.
+ */
+public interface BatchEventListener<E extends ApplicationEvent> {
+
+    Class<E> getEventType();
+
+    void onEvents(List<E> events);
+}
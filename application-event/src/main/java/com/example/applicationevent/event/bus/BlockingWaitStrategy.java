@@ -0,0 +1,59 @@
+package com.example.applicationevent.event.bus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Parks the consumers on a condition, the writers only take the lock when a consumer is waiting. Uses no CPU while
+ * idle, at the cost of a wake-up latency.
+ */
+public class BlockingWaitStrategy implements WaitStrategy {
+
+    private final Lock lock = new ReentrantLock();
+
+    private final Condition published = lock.newCondition();
+
+    private final AtomicBoolean signalNeeded = new AtomicBoolean();
+
+    @Override
+    public long waitFor(long sequence, Sequence cursor, BooleanSupplier halted) {
+        long available = cursor.get();
+        if (available >= sequence) {
+            return available;
+        }
+
+        lock.lock();
+        try {
+            while (true) {
+                // Announce the wait before checking again, a writer publishing now signals
+                signalNeeded.set(true);
+                available = cursor.get();
+                if (available >= sequence || halted.getAsBoolean()) {
+                    return available;
+                }
+                published.await(100, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return cursor.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+        if (signalNeeded.getAndSet(false)) {
+            lock.lock();
+            try {
+                published.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
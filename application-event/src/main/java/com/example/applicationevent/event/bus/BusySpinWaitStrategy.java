@@ -0,0 +1,22 @@
+package com.example.applicationevent.event.bus;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Spins on the cursor. The lowest latency, only for consumer threads that have a core of their own.
+ */
+public class BusySpinWaitStrategy implements WaitStrategy {
+
+    @Override
+    public long waitFor(long sequence, Sequence cursor, BooleanSupplier halted) {
+        long available;
+        while ((available = cursor.get()) < sequence && !halted.getAsBoolean()) {
+            Thread.onSpinWait();
+        }
+        return available;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.applicationevent.event.bus;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * Processes every event of the ring buffer on one thread, for the listeners of one group.
+ * <p>
+ * The group publishes its progress in its own sequence, which the writers use to not overwrite unprocessed events.
+ */
+@Slf4j
+class ConsumerGroup implements Runnable {
+
+    private final String name;
+
+    private final RingBufferEventBus.Slot[] slots;
+
+    private final int indexMask;
+
+    private final Sequencer sequencer;
+
+    private final WaitStrategy waitStrategy;
+
+    private final Sequence sequence = new Sequence(-1);
+
+    // The listeners of every event class, resolved on the first event of the class
+    private final ClassValue<ListenerInvoker[]> invokersByType;
+
+    private volatile boolean running = true;
+
+    ConsumerGroup(String name, List<ListenerInvoker> invokers, RingBufferEventBus.Slot[] slots, Sequencer sequencer,
+                  WaitStrategy waitStrategy) {
+        this.name = name;
+        this.slots = slots;
+        this.indexMask = slots.length - 1;
+        this.sequencer = sequencer;
+        this.waitStrategy = waitStrategy;
+        this.invokersByType = new ClassValue<>() {
+            @Override
+            protected ListenerInvoker[] computeValue(Class<?> type) {
+                return invokers.stream().filter(invoker -> invoker.supports(type)).toArray(ListenerInvoker[]::new);
+            }
+        };
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Sequence getSequence() {
+        return sequence;
+    }
+
+    void halt() {
+        running = false;
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    @Override
+    public void run() {
+        long next = sequence.get() + 1;
+        while (true) {
+            long available = waitStrategy.waitFor(next, sequencer.getCursor(), () -> !running);
+            if (available < next) {
+                if (!running) {
+                    return;
+                }
+                continue;
+            }
+
+            available = sequencer.getHighestPublished(next, available);
+            for (long current = next; current <= available; current++) {
+                RingBufferEventBus.Slot slot = slots[(int) current & indexMask];
+                dispatch(slot.event);
+                slot.consumed();
+            }
+            if (available >= next) {
+                sequence.set(available);
+                next = available + 1;
+            }
+        }
+    }
+
+    private void dispatch(Object event) {
+        for (ListenerInvoker invoker : invokersByType.get(event.getClass())) {
+            try {
+                invoker.invoke(event);
+            } catch (Throwable e) {
+                // A failing listener must not stop the group, the other listeners still get the event
+                log.warn("Listener {} of group {} failed on {}", invoker.getName(), name, event, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.applicationevent.event.bus;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The consumer group of the {@code @EventListener} methods of a bean on the {@link RingBufferEventBus}.
+ * <p>
+ * Every group has its own consumer thread and sees every event, the listeners of a group run one after the other.
+ * Beans without this annotation are in the {@code default} group.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface EventBusGroup {
+
+    String value();
+}
@@ -0,0 +1,44 @@
+package com.example.applicationevent.event.bus;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Calls one {@code @EventListener} method through a method handle bound to its bean, without reflection or
+ * argument arrays per call.
+ */
+class ListenerInvoker {
+
+    private final String name;
+
+    private final Class<?> eventType;
+
+    private final MethodHandle handle;
+
+    ListenerInvoker(Object bean, Method method) {
+        this.name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        this.eventType = method.getParameterTypes()[0];
+        try {
+            method.setAccessible(true);
+            this.handle = MethodHandles.lookup().unreflect(method)
+                    .bindTo(bean)
+                    .asType(MethodType.methodType(void.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access listener " + name, e);
+        }
+    }
+
+    String getName() {
+        return name;
+    }
+
+    boolean supports(Class<?> type) {
+        return eventType.isAssignableFrom(type);
+    }
+
+    void invoke(Object event) throws Throwable {
+        handle.invokeExact(event);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.applicationevent.event.bus;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Sequencer for any number of writer threads, they claim sequences with a CAS on the cursor.
+ * <p>
+ * Writers claim in order but may publish out of order, so every slot records the round of the buffer it was
+ * published in, and consumers only read up to the first slot that has not been published yet.
+ */
+public class MultiWriterSequencer extends Sequencer {
+
+    private static final VarHandle AVAILABLE = MethodHandles.arrayElementVarHandle(int[].class);
+
+    // The highest claimed sequence, published or not
+    private final Sequence cursor = new Sequence(-1);
+
+    private final Sequence cachedGatingSequence = new Sequence(-1);
+
+    private final int[] availableRounds;
+
+    private final int indexMask;
+
+    private final int indexShift;
+
+    public MultiWriterSequencer(int bufferSize, WaitStrategy waitStrategy) {
+        super(bufferSize, waitStrategy);
+        this.availableRounds = new int[bufferSize];
+        Arrays.fill(availableRounds, -1);
+        this.indexMask = bufferSize - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+    }
+
+    @Override
+    public Sequence getCursor() {
+        return cursor;
+    }
+
+    @Override
+    public long next() {
+        while (true) {
+            long current = cursor.get();
+            long next = current + 1;
+            long wrapPoint = next - bufferSize;
+            long cachedGating = cachedGatingSequence.get();
+
+            if (wrapPoint > cachedGating || cachedGating > current) {
+                long gating = minimumSequence(current);
+                if (wrapPoint > gating) {
+                    waitForConsumers();
+                    continue;
+                }
+                cachedGatingSequence.set(gating);
+            } else if (cursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    @Override
+    public void publish(long sequence) {
+        AVAILABLE.setRelease(availableRounds, (int) sequence & indexMask, (int) (sequence >>> indexShift));
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    @Override
+    public long getHighestPublished(long lowerBound, long available) {
+        for (long sequence = lowerBound; sequence <= available; sequence++) {
+            if (!isPublished(sequence)) {
+                return sequence - 1;
+            }
+        }
+        return available;
+    }
+
+    private boolean isPublished(long sequence) {
+        return (int) AVAILABLE.getAcquire(availableRounds, (int) sequence & indexMask) == (int) (sequence >>> indexShift);
+    }
+}
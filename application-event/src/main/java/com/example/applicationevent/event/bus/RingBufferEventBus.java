@@ -0,0 +1,201 @@
+package com.example.applicationevent.event.bus;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * An in-process event bus on a preallocated ring buffer, for events published at rates where
+ * {@code ApplicationEventPublisher.publishEvent} allocates and synchronizes too much.
+ * <p>
+ * A writer claims a slot, stores the event in it and publishes the slot, without locks. Every
+ * {@link EventBusGroup consumer group} reads all events on its own thread and calls the {@code @EventListener} methods
+ * of its beans, the same listener beans {@code publishEvent} calls. Listeners run asynchronously, in publication
+ * order within a group, and a full buffer makes the writers wait for the slowest group.
+ * <p>
+ * {@code @TransactionalEventListener} methods are not called, the bus does not know about transactions.
+ */
+@Slf4j
+public class RingBufferEventBus implements SmartInitializingSingleton, SmartLifecycle {
+
+    static final String DEFAULT_GROUP = "default";
+
+    private final ConfigurableApplicationContext applicationContext;
+
+    private final Sequencer sequencer;
+
+    private final WaitStrategy waitStrategy;
+
+    private final Slot[] slots;
+
+    private final int indexMask;
+
+    private final Duration shutdownTimeout;
+
+    private final List<ConsumerGroup> groups = new ArrayList<>();
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    private volatile boolean running;
+
+    /**
+     * A preallocated entry of the ring buffer, only the event reference changes.
+     * <p>
+     * The last group to dispatch the event clears the reference, so the buffer does not keep processed events alive.
+     */
+    static final class Slot {
+        private static final AtomicIntegerFieldUpdater<Slot> PENDING_GROUPS =
+                AtomicIntegerFieldUpdater.newUpdater(Slot.class, "pendingGroups");
+
+        Object event;
+
+        private volatile int pendingGroups;
+
+        void consumed() {
+            if (PENDING_GROUPS.decrementAndGet(this) == 0) {
+                event = null;
+            }
+        }
+    }
+
+    public RingBufferEventBus(ConfigurableApplicationContext applicationContext, int bufferSize, String writers,
+                              WaitStrategy waitStrategy, Duration shutdownTimeout) {
+        this.applicationContext = applicationContext;
+        this.waitStrategy = waitStrategy;
+        this.sequencer = Sequencer.of(writers, bufferSize, waitStrategy);
+        this.slots = new Slot[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            slots[i] = new Slot();
+        }
+        this.indexMask = bufferSize - 1;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    /**
+     * Publish the event to every consumer group, waiting while the buffer is full.
+     *
+     * @throws IllegalStateException if the bus is not running
+     */
+    public void publish(Object event) {
+        if (!running) {
+            throw new IllegalStateException("Event bus is not running");
+        }
+        long sequence = sequencer.next();
+        Slot slot = slots[(int) sequence & indexMask];
+        slot.event = event;
+        slot.pendingGroups = groups.size();
+        sequencer.publish(sequence);
+    }
+
+    Slot[] getSlots() {
+        return slots;
+    }
+
+    public List<String> getGroupNames() {
+        return groups.stream().map(ConsumerGroup::getName).toList();
+    }
+
+    /**
+     * Find the {@code @EventListener} methods of all beans and build one consumer group per {@link EventBusGroup}.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        Map<String, List<ListenerInvoker>> invokersByGroup = new TreeMap<>();
+        for (String beanName : applicationContext.getBeanDefinitionNames()) {
+            if (beanName.startsWith("scopedTarget.")) {
+                continue;
+            }
+            Class<?> type = applicationContext.getType(beanName);
+            if (type == null || type.getName().startsWith("org.springframework.")) {
+                continue;
+            }
+            Class<?> targetType = AopUtils.isAopProxy(type) ? AopUtils.getTargetClass(type) : type;
+            Map<Method, EventListener> methods = MethodIntrospector.selectMethods(targetType,
+                    (MethodIntrospector.MetadataLookup<EventListener>) method ->
+                            AnnotatedElementUtils.findMergedAnnotation(method, EventListener.class));
+            if (methods.isEmpty()) {
+                continue;
+            }
+
+            Object bean = applicationContext.getBean(beanName);
+            EventBusGroup group = AnnotationUtils.findAnnotation(targetType, EventBusGroup.class);
+            String groupName = group != null ? group.value() : DEFAULT_GROUP;
+            methods.keySet().forEach(method -> {
+                if (method.getParameterCount() != 1
+                        || AnnotatedElementUtils.hasAnnotation(method, TransactionalEventListener.class)) {
+                    return;
+                }
+                Method invocable = AopUtils.selectInvocableMethod(method, bean.getClass());
+                invokersByGroup.computeIfAbsent(groupName, name -> new ArrayList<>())
+                        .add(new ListenerInvoker(bean, invocable));
+            });
+        }
+
+        invokersByGroup.forEach((name, invokers) ->
+                groups.add(new ConsumerGroup(name, invokers, slots, sequencer, waitStrategy)));
+        sequencer.setGatingSequences(groups.stream().map(ConsumerGroup::getSequence).toList());
+        log.info("Event bus with {} slots and consumer groups {}", slots.length, invokersByGroup.keySet());
+    }
+
+    @Override
+    public void start() {
+        for (ConsumerGroup group : groups) {
+            Thread thread = new Thread(group, "event-bus-" + group.getName());
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        running = true;
+    }
+
+    /**
+     * Reject new events, let the groups process the published ones, then stop their threads.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        long processed = groups.stream().mapToLong(group -> group.getSequence().get()).min().orElse(-1);
+        long published = sequencer.getHighestPublished(processed + 1, sequencer.getCursor().get());
+        for (ConsumerGroup group : groups) {
+            while (group.getSequence().get() < published && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+                Thread.yield();
+            }
+            if (group.getSequence().get() < published) {
+                log.warn("Consumer group {} did not process {} events before shutdown", group.getName(),
+                        published - group.getSequence().get());
+            }
+            group.halt();
+        }
+        sequencer.halt();
+        for (Thread thread : threads) {
+            try {
+                thread.join(shutdownTimeout.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        threads.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.applicationevent.event.bus;
+
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands out the sequences of the ring buffer to the writers, and never lets them wrap past the slowest consumer.
+ */
+public abstract class Sequencer {
+
+    protected final int bufferSize;
+
+    protected final WaitStrategy waitStrategy;
+
+    // Sequences of the consumer groups, a writer may not overwrite a slot they have not processed yet
+    protected volatile List<Sequence> gatingSequences = List.of();
+
+    // Set once the consumers stopped, a writer waiting for them would wait forever
+    private volatile boolean halted;
+
+    protected Sequencer(int bufferSize, WaitStrategy waitStrategy) {
+        if (Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("Buffer size must be a power of 2, was " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        this.waitStrategy = waitStrategy;
+    }
+
+    public static Sequencer of(String writers, int bufferSize, WaitStrategy waitStrategy) {
+        return switch (writers) {
+            case "single" -> new SingleWriterSequencer(bufferSize, waitStrategy);
+            case "multi" -> new MultiWriterSequencer(bufferSize, waitStrategy);
+            default -> throw new IllegalArgumentException("Unknown writer mode " + writers + ", expected single or multi");
+        };
+    }
+
+    public void setGatingSequences(List<Sequence> gatingSequences) {
+        this.gatingSequences = List.copyOf(gatingSequences);
+    }
+
+    /**
+     * Fail the writers waiting for the consumers, and the ones claiming a sequence later.
+     */
+    public void halt() {
+        halted = true;
+    }
+
+    /**
+     * The cursor the consumers wait on.
+     */
+    public abstract Sequence getCursor();
+
+    /**
+     * Claim the next sequence, waiting while the buffer is full.
+     *
+     * @throws IllegalStateException if the sequencer is halted
+     */
+    public abstract long next();
+
+    /**
+     * Make the event written to the claimed sequence visible to the consumers.
+     */
+    public abstract void publish(long sequence);
+
+    /**
+     * The highest sequence from {@code lowerBound} up to {@code available} that has been published, with no gaps.
+     */
+    public abstract long getHighestPublished(long lowerBound, long available);
+
+    protected long minimumSequence(long minimum) {
+        for (Sequence sequence : gatingSequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum;
+    }
+
+    protected void waitForConsumers() {
+        if (halted) {
+            throw new IllegalStateException("The consumers are stopped, the buffer stays full");
+        }
+        LockSupport.parkNanos(1);
+    }
+}
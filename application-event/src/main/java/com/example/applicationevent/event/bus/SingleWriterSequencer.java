@@ -0,0 +1,51 @@
+package com.example.applicationevent.event.bus;
+
+/**
+ * Sequencer for a single writer thread, claims without any atomic instruction.
+ * <p>
+ * Only correct while exactly one thread publishes, use {@link MultiWriterSequencer} otherwise.
+ */
+public class SingleWriterSequencer extends Sequencer {
+
+    private final Sequence cursor = new Sequence(-1);
+
+    // Only touched by the writer thread
+    private long nextValue = -1;
+
+    private long cachedGatingSequence = -1;
+
+    public SingleWriterSequencer(int bufferSize, WaitStrategy waitStrategy) {
+        super(bufferSize, waitStrategy);
+    }
+
+    @Override
+    public Sequence getCursor() {
+        return cursor;
+    }
+
+    @Override
+    public long next() {
+        long next = nextValue + 1;
+        long wrapPoint = next - bufferSize;
+        if (wrapPoint > cachedGatingSequence) {
+            long minimum;
+            while (wrapPoint > (minimum = minimumSequence(nextValue))) {
+                waitForConsumers();
+            }
+            cachedGatingSequence = minimum;
+        }
+        nextValue = next;
+        return next;
+    }
+
+    @Override
+    public void publish(long sequence) {
+        cursor.set(sequence);
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    @Override
+    public long getHighestPublished(long lowerBound, long available) {
+        return available;
+    }
+}
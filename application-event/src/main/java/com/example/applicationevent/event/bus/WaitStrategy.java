@@ -0,0 +1,32 @@
+package com.example.applicationevent.event.bus;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * How a consumer group waits for the writers to publish the next sequence.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Wait until the cursor reaches the sequence, or until {@code halted} is true.
+     *
+     * @return the cursor, lower than the sequence when halted
+     */
+    long waitFor(long sequence, Sequence cursor, BooleanSupplier halted);
+
+    /**
+     * Called by the writers after publishing, wakes up the consumers of a blocking strategy.
+     */
+    void signalAllWhenBlocking();
+
+    static WaitStrategy of(String name) {
+        return switch (name) {
+            case "blocking" -> new BlockingWaitStrategy();
+            case "sleeping" -> new SleepingWaitStrategy();
+            case "yielding" -> new YieldingWaitStrategy();
+            case "busy-spin" -> new BusySpinWaitStrategy();
+            default -> throw new IllegalArgumentException("Unknown wait strategy " + name
+                    + ", expected blocking, sleeping, yielding or busy-spin");
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.applicationevent.event.bus;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Spins briefly, then yields the CPU between checks. Low latency, but keeps a core busy while idle.
+ */
+public class YieldingWaitStrategy implements WaitStrategy {
+
+    private static final int SPIN_TRIES = 100;
+
+    @Override
+    public long waitFor(long sequence, Sequence cursor, BooleanSupplier halted) {
+        int tries = 0;
+        long available;
+        while ((available = cursor.get()) < sequence && !halted.getAsBoolean()) {
+            if (tries++ < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        return available;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+    }
+}
@@ -1,14 +1,39 @@
 package com.example.applicationevent.event.listener;
 
 import com.example.applicationevent.event.UserRegisteredEvent;
+import com.example.applicationevent.event.UsersRegisteredEvent;
+import com.example.applicationevent.event.batch.BatchEventListener;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 @Component
-public class UserRegisteredListener {
+public class UserRegisteredListener implements BatchEventListener<UserRegisteredEvent> {
+
+    @Override
+    public Class<UserRegisteredEvent> getEventType() {
+        return UserRegisteredEvent.class;
+    }
+
+    /**
+     * Sends the registration emails of a batch with one call. Runs on the delivery threads of the outbox relay, after
+     * the registrations have committed, an exception leaves the events in the outbox so they are delivered again.
+     */
+    @Override
+    public void onEvents(List<UserRegisteredEvent> events) {
+        String emails = events.stream()
+                .map(event -> event.getUser().getEmail())
+                .collect(Collectors.joining(", "));
+        System.out.println("Sending " + events.size() + " registration emails: email addresses = " + emails);
+    }
 
+    /**
+     * Sends the registration emails of a bulk registration chunk with one call, the chunk is already a batch.
+     */
     @EventListener
-    public void handleUserRegisteredEvent(UserRegisteredEvent userRegisteredEvent) {
-        System.out.println("Sending registration email: email address = " + userRegisteredEvent.getUser().getEmail());
+    public void onUsersRegistered(UsersRegisteredEvent event) {
+        System.out.println("Sending " + event.getUsers().size() + " registration emails of a bulk registration");
     }
 }
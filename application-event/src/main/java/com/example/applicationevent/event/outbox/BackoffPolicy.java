@@ -0,0 +1,19 @@
+package com.example.applicationevent.event.outbox;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with jitter between the delivery attempts of an outbox event.
+ * <p>
+ * The n-th retry waits {@code initialDelay * multiplier^(n-1)}, at most {@code maxDelay}, shortened by a random part of
+ * up to {@code jitter} of it, so the events failing together are not all retried at the same moment.
+ */
+public record BackoffPolicy(Duration initialDelay, double multiplier, Duration maxDelay, double jitter) {
+
+    public Duration delay(int attempt) {
+        double delay = Math.min(initialDelay.toNanos() * Math.pow(multiplier, attempt - 1), maxDelay.toNanos());
+        delay -= delay * jitter * ThreadLocalRandom.current().nextDouble();
+        return Duration.ofNanos((long) delay);
+    }
+}
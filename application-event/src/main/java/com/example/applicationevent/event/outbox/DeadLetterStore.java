@@ -0,0 +1,109 @@
+package com.example.applicationevent.event.outbox;
+
+import com.example.applicationevent.entity.DeadLetterEvent;
+import com.example.applicationevent.entity.OutboxEvent;
+import com.example.applicationevent.repository.DeadLetterEventRepository;
+import com.example.applicationevent.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Parks the outbox events that failed on every delivery attempt, and puts them back into the outbox on replay.
+ */
+@Component
+@Slf4j
+public class DeadLetterStore {
+
+    private final DeadLetterEventRepository deadLetterEventRepository;
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int replayChunkSize;
+
+    public DeadLetterStore(DeadLetterEventRepository deadLetterEventRepository,
+                           OutboxEventRepository outboxEventRepository, PlatformTransactionManager transactionManager,
+                           @Value("${events.retry.replay-chunk-size}") int replayChunkSize) {
+        this.deadLetterEventRepository = deadLetterEventRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.replayChunkSize = replayChunkSize;
+    }
+
+    /**
+     * Move the event from the outbox to the dead letters, the later events of its aggregate are delivered again.
+     */
+    @Transactional
+    public void deadLetter(OutboxEvent event) {
+        deadLetterEventRepository.save(DeadLetterEvent.builder()
+                .outboxEventId(event.getId())
+                .aggregateType(event.getAggregateType())
+                .aggregateId(event.getAggregateId())
+                .eventType(event.getEventType())
+                .payload(event.getPayload())
+                .createdAt(event.getCreatedAt())
+                .attempts(event.getAttempts())
+                .lastError(event.getLastError())
+                .deadLetteredAt(Instant.now())
+                .build());
+        outboxEventRepository.deleteById(event.getId());
+    }
+
+    public List<DeadLetterEvent> findOldest(String eventType, int limit) {
+        return deadLetterEventRepository.findOldest(eventType, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Put the dead letters back at the end of the outbox with no failed attempts, in chunks of
+     * {@code events.retry.replay-chunk-size} committed one by one.
+     * <p>
+     * The given ids are replayed, or all dead letters of the event type when there are none, or all dead letters when
+     * neither is given. A replayed event is delivered after the events of its aggregate written since it failed.
+     */
+    public long replay(List<Long> ids, String eventType) {
+        long replayed = 0;
+        if (ids != null && !ids.isEmpty()) {
+            for (int from = 0; from < ids.size(); from += replayChunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + replayChunkSize, ids.size()));
+                replayed += replayChunk(deadLetterEventRepository.findAllById(chunk));
+            }
+        } else {
+            int count;
+            do {
+                count = replayChunk(findOldest(eventType, replayChunkSize));
+                replayed += count;
+            } while (count == replayChunkSize);
+        }
+        log.info("Replayed {} dead letters", replayed);
+        return replayed;
+    }
+
+    private int replayChunk(List<DeadLetterEvent> deadLetters) {
+        if (deadLetters.isEmpty()) {
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Instant now = Instant.now();
+            outboxEventRepository.saveAll(deadLetters.stream()
+                    .map(deadLetter -> OutboxEvent.builder()
+                            .aggregateType(deadLetter.getAggregateType())
+                            .aggregateId(deadLetter.getAggregateId())
+                            .eventType(deadLetter.getEventType())
+                            .payload(deadLetter.getPayload())
+                            .createdAt(now)
+                            .build())
+                    .toList());
+            deadLetterEventRepository.deleteAllByIdInBatch(deadLetters.stream().map(DeadLetterEvent::getId).toList());
+        });
+        return deadLetters.size();
+    }
+}
@@ -0,0 +1,378 @@
+package com.example.applicationevent.event.outbox;
+
+import com.example.applicationevent.entity.OutboxEvent;
+import com.example.applicationevent.event.UserRegisteredEvent;
+import com.example.applicationevent.event.UsersRegisteredEvent;
+import com.example.applicationevent.event.batch.BatchEventListener;
+import com.example.applicationevent.executor.ListenerExecutorFactory;
+import com.example.applicationevent.executor.StripedExecutor;
+import com.example.applicationevent.executor.TimerWheel;
+import com.example.applicationevent.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers the outbox events to the application listeners, at least once and in order per aggregate.
+ * <p>
+ * The oldest {@code events.outbox.batch-size} events are read as one batch. A partial batch stays in the outbox until
+ * its oldest event has waited for {@code events.outbox.max-wait}, so bursts are delivered in few, full batches.
+ * <p>
+ * The batch is grouped by aggregate. Every group is delivered on the {@code outboxRelayLanes} lane of its aggregate, the
+ * events of a group one after the other to the synchronous listeners, so the events of one user stay in order while
+ * other users are delivered in parallel. The whole batch goes to every {@link BatchEventListener} on its own
+ * executor of {@code batchListenerExecutors}, named after the listener bean. The delivered events are deleted in one
+ * statement.
+ * <p>
+ * A group stops at its first failed event, the event and the later ones of its aggregate stay in the outbox. The
+ * failed event is retried after the {@link BackoffPolicy} delay and its aggregate is not delivered in the meantime.
+ * After {@code events.retry.max-attempts} attempts the event is moved to the dead letters and the later events of its
+ * aggregate go on. A batch is woken up once by {@code retryTimerWheel} for the earliest of its retries, the polls pick
+ * up the later ones.
+ * <p>
+ * When a batch listener fails, the batch is split in halves and delivered again to find the events it fails on, only
+ * those are charged an attempt. When both halves fail, the listener fails whatever the events, e.g. because its mail
+ * server is down, and all events of the failed part are charged.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ApplicationEventPublisher publisher;
+
+    private final ObjectMapper objectMapper;
+
+    private final StripedExecutor outboxRelayLanes;
+
+    private final int batchSize;
+
+    private final Duration maxWait;
+
+    private final List<BatchListener> batchEventListeners;
+
+    private final DeadLetterStore deadLetterStore;
+
+    private final TimerWheel retryTimerWheel;
+
+    private final BackoffPolicy backoffPolicy;
+
+    private final int maxAttempts;
+
+    private final Counter delivered;
+
+    private final Counter failed;
+
+    private final Counter retried;
+
+    private final Counter deadLettered;
+
+    private final Timer batchTimer;
+
+    private final DistributionSummary batchSizes;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, ApplicationEventPublisher publisher,
+                       ObjectMapper objectMapper, StripedExecutor outboxRelayLanes,
+                       @Value("${events.outbox.batch-size}") int batchSize,
+                       @Value("${events.outbox.max-wait}") Duration maxWait,
+                       Map<String, BatchEventListener<?>> batchEventListeners,
+                       ListenerExecutorFactory batchListenerExecutors, DeadLetterStore deadLetterStore,
+                       TimerWheel retryTimerWheel, BackoffPolicy backoffPolicy,
+                       @Value("${events.retry.max-attempts}") int maxAttempts, MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.publisher = publisher;
+        this.objectMapper = objectMapper;
+        this.outboxRelayLanes = outboxRelayLanes;
+        this.batchSize = batchSize;
+        this.maxWait = maxWait;
+        this.batchEventListeners = batchEventListeners.entrySet().stream()
+                .map(entry -> new BatchListener(entry.getValue(), batchListenerExecutors.create(entry.getKey())))
+                .toList();
+        this.deadLetterStore = deadLetterStore;
+        this.retryTimerWheel = retryTimerWheel;
+        this.backoffPolicy = backoffPolicy;
+        this.maxAttempts = maxAttempts;
+        this.delivered = Counter.builder("events.outbox.delivered")
+                .description("Outbox events delivered to the listeners")
+                .register(meterRegistry);
+        this.failed = Counter.builder("events.outbox.failed")
+                .description("Outbox event deliveries that failed")
+                .register(meterRegistry);
+        this.retried = Counter.builder("events.outbox.retried")
+                .description("Failed outbox events scheduled for another attempt")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("events.outbox.dead-lettered")
+                .description("Outbox events moved to the dead letters after their last attempt")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("events.outbox.batch")
+                .description("Time to deliver and delete one batch of outbox events")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("events.outbox.batch.size")
+                .description("Events per delivered batch")
+                .register(meterRegistry);
+        Gauge.builder("events.outbox.lag", lagMillis, AtomicLong::get)
+                .description("Age of the oldest undelivered outbox event at the last poll")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Deliver batches until the outbox is drained or a delivery fails.
+     */
+    @Scheduled(fixedDelayString = "${events.outbox.poll-interval}")
+    public void relay() {
+        relay(false);
+    }
+
+    /**
+     * Deliver the events still in the outbox on shutdown, including a batch whose window is still open.
+     */
+    @PreDestroy
+    public void flush() {
+        relay(true);
+    }
+
+    private synchronized void relay(boolean flush) {
+        boolean drained = false;
+        while (!drained) {
+            drained = batchTimer.record(() -> relayBatch(flush));
+        }
+        updateLag();
+    }
+
+    private boolean relayBatch(boolean flush) {
+        List<OutboxEvent> batch = outboxEventRepository.findOldest(Instant.now(), PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return true;
+        }
+        // Hold a partial batch until it is full or its oldest event has waited for max-wait
+        if (!flush && batch.size() < batchSize && batch.get(0).getCreatedAt().plus(maxWait).isAfter(Instant.now())) {
+            return true;
+        }
+        batchSizes.record(batch.size());
+
+        Set<Long> failedIds = ConcurrentHashMap.newKeySet();
+        // The events whose delivery threw, with the error
+        Map<Long, String> errors = new ConcurrentHashMap<>();
+        Map<Long, ApplicationEvent> applicationEvents = new HashMap<>();
+        Map<String, List<OutboxEvent>> byAggregate = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            try {
+                applicationEvents.put(event.getId(), toApplicationEvent(event));
+            } catch (RuntimeException e) {
+                log.warn("Outbox event {} cannot be read", event.getId(), e);
+            }
+            byAggregate.computeIfAbsent(event.getAggregateType() + ":" + event.getAggregateId(),
+                    key -> new ArrayList<>()).add(event);
+        }
+
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>();
+        byAggregate.forEach((aggregate, events) -> deliveries.add(
+                deliverAsync(events, () -> deliver(events, applicationEvents, failedIds, errors),
+                        task -> outboxRelayLanes.execute(aggregate, task), failedIds)));
+        batchEventListeners.forEach(listener -> deliveries.add(deliverAsync(batch,
+                () -> deliverBatch(listener.listener(), batch, applicationEvents, failedIds, errors),
+                listener.executor(), failedIds)));
+        deliveries.forEach(CompletableFuture::join);
+
+        List<Long> deliveredIds = batch.stream()
+                .map(OutboxEvent::getId)
+                .filter(id -> !failedIds.contains(id))
+                .toList();
+        if (!deliveredIds.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(deliveredIds);
+        }
+        delivered.increment(deliveredIds.size());
+
+        Duration nextRetry = null;
+        for (OutboxEvent event : batch) {
+            String error = errors.get(event.getId());
+            Duration delay = error != null ? retryOrDeadLetter(event, error) : null;
+            if (delay != null && (nextRetry == null || delay.compareTo(nextRetry) < 0)) {
+                nextRetry = delay;
+            }
+        }
+        if (nextRetry != null) {
+            // The attempts are recorded in the outbox, a poll retries the events if the wheel is gone after a restart
+            retryTimerWheel.schedule(this::relay, nextRetry);
+        }
+
+        // Wait for the next poll after a failure instead of reading the next batch right away
+        return !failedIds.isEmpty() || batch.size() < batchSize;
+    }
+
+    private CompletableFuture<Void> deliverAsync(List<OutboxEvent> events, Runnable delivery, Executor executor,
+                                                 Set<Long> failedIds) {
+        try {
+            return CompletableFuture.runAsync(delivery, executor);
+        } catch (RuntimeException e) {
+            log.warn("Delivery of {} outbox events rejected, retrying with the next poll", events.size(), e);
+            failed.increment();
+            events.forEach(event -> failedIds.add(event.getId()));
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Record the failed attempt of the event and return the delay of its next one, or move it to the dead letters
+     * after its last attempt and return null.
+     */
+    private Duration retryOrDeadLetter(OutboxEvent event, String error) {
+        event.setAttempts(event.getAttempts() + 1);
+        event.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+        if (event.getAttempts() >= maxAttempts) {
+            log.error("Outbox event {} failed {} times, moved to the dead letters: {}", event.getId(),
+                    event.getAttempts(), error);
+            deadLetterStore.deadLetter(event);
+            deadLettered.increment();
+            return null;
+        }
+
+        Duration delay = backoffPolicy.delay(event.getAttempts());
+        event.setNextAttemptAt(Instant.now().plus(delay));
+        outboxEventRepository.save(event);
+        retried.increment();
+        log.warn("Outbox event {} failed {} times, retrying in {} ms", event.getId(), event.getAttempts(),
+                delay.toMillis());
+        return delay;
+    }
+
+    /**
+     * Publish the events of one aggregate in order, the first failure keeps it and the later ones in the outbox.
+     */
+    private void deliver(List<OutboxEvent> events, Map<Long, ApplicationEvent> applicationEvents,
+                         Set<Long> failedIds, Map<Long, String> errors) {
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            try {
+                ApplicationEvent applicationEvent = applicationEvents.get(event.getId());
+                if (applicationEvent == null) {
+                    throw new IllegalStateException("Outbox event " + event.getId() + " cannot be read");
+                }
+                publisher.publishEvent(applicationEvent);
+            } catch (RuntimeException e) {
+                log.warn("Delivery of outbox event {} failed", event.getId(), e);
+                failed.increment();
+                errors.put(event.getId(), describe(e));
+                events.subList(i, events.size()).forEach(later -> failedIds.add(later.getId()));
+                return;
+            }
+        }
+    }
+
+    private <E extends ApplicationEvent> void deliverBatch(BatchEventListener<E> listener, List<OutboxEvent> batch,
+                                                           Map<Long, ApplicationEvent> applicationEvents,
+                                                           Set<Long> failedIds, Map<Long, String> errors) {
+        List<Long> ids = new ArrayList<>();
+        List<E> events = new ArrayList<>();
+        for (OutboxEvent event : batch) {
+            ApplicationEvent applicationEvent = applicationEvents.get(event.getId());
+            if (listener.getEventType().isInstance(applicationEvent)) {
+                ids.add(event.getId());
+                events.add(listener.getEventType().cast(applicationEvent));
+            }
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+
+        RuntimeException error = deliverBatch(listener, events);
+        if (error != null) {
+            log.warn("Delivery of {} outbox events to {} failed", events.size(),
+                    listener.getClass().getSimpleName(), error);
+            failed.increment();
+            isolateFailures(listener, ids, events, error, failedIds, errors);
+        }
+    }
+
+    /**
+     * Deliver the halves of a failed batch again, down to the single events the listener fails on.
+     */
+    private <E extends ApplicationEvent> void isolateFailures(BatchEventListener<E> listener, List<Long> ids,
+                                                              List<E> events, RuntimeException error,
+                                                              Set<Long> failedIds, Map<Long, String> errors) {
+        if (events.size() > 1) {
+            int middle = events.size() / 2;
+            RuntimeException firstError = deliverBatch(listener, events.subList(0, middle));
+            RuntimeException secondError = deliverBatch(listener, events.subList(middle, events.size()));
+            if (firstError == null || secondError == null) {
+                if (firstError != null) {
+                    isolateFailures(listener, ids.subList(0, middle), events.subList(0, middle), firstError,
+                            failedIds, errors);
+                }
+                if (secondError != null) {
+                    isolateFailures(listener, ids.subList(middle, ids.size()), events.subList(middle, events.size()),
+                            secondError, failedIds, errors);
+                }
+                return;
+            }
+        }
+        failedIds.addAll(ids);
+        ids.forEach(id -> errors.putIfAbsent(id, describe(error)));
+    }
+
+    private <E extends ApplicationEvent> RuntimeException deliverBatch(BatchEventListener<E> listener, List<E> events) {
+        try {
+            listener.onEvents(events);
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    private ApplicationEvent toApplicationEvent(OutboxEvent event) {
+        try {
+            if (UserRegisteredPayload.EVENT_TYPE.equals(event.getEventType())) {
+                UserRegisteredPayload payload = objectMapper.readValue(event.getPayload(), UserRegisteredPayload.class);
+                return new UserRegisteredEvent(this, payload.toUser());
+            }
+            if (UsersRegisteredPayload.EVENT_TYPE.equals(event.getEventType())) {
+                UsersRegisteredPayload payload = objectMapper.readValue(event.getPayload(), UsersRegisteredPayload.class);
+                return new UsersRegisteredEvent(this, payload.toUsers());
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid payload of outbox event " + event.getId(), e);
+        }
+        throw new IllegalStateException("Unknown type " + event.getEventType() + " of outbox event " + event.getId());
+    }
+
+    private String describe(RuntimeException e) {
+        return e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+
+    private void updateLag() {
+        Instant oldest = outboxEventRepository.findOldestCreatedAt();
+        lagMillis.set(oldest == null ? 0 : Duration.between(oldest, Instant.now()).toMillis());
+    }
+
+    private record BatchListener(BatchEventListener<?> listener, Executor executor) {
+    }
+}
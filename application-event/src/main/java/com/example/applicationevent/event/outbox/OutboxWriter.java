@@ -0,0 +1,65 @@
+package com.example.applicationevent.event.outbox;
+
+import com.example.applicationevent.entity.OutboxEvent;
+import com.example.applicationevent.entity.User;
+import com.example.applicationevent.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Appends events to the outbox, in the transaction of the caller.
+ */
+@Component
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public OutboxWriter(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Append a {@code UserRegistered} event of the saved user, the password is not part of the payload.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userRegistered(User user) {
+        append("User", String.valueOf(user.getId()), UserRegisteredPayload.EVENT_TYPE, toPayload(user));
+    }
+
+    /**
+     * Append one {@code UsersRegistered} event for the users of a bulk registration chunk. The chunks of an upload
+     * share the upload id as aggregate, so they are delivered in order.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void usersRegistered(String uploadId, List<User> users) {
+        UsersRegisteredPayload payload = new UsersRegisteredPayload(users.stream().map(this::toPayload).toList());
+        append("UserUpload", uploadId, UsersRegisteredPayload.EVENT_TYPE, payload);
+    }
+
+    private UserRegisteredPayload toPayload(User user) {
+        return new UserRegisteredPayload(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail());
+    }
+
+    private void append(String aggregateType, String aggregateId, String eventType, Object payload) {
+        try {
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .aggregateType(aggregateType)
+                    .aggregateId(aggregateId)
+                    .eventType(eventType)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .createdAt(Instant.now())
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize the payload of " + eventType, e);
+        }
+    }
+}
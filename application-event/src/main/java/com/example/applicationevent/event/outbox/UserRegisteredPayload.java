@@ -0,0 +1,21 @@
+package com.example.applicationevent.event.outbox;
+
+import com.example.applicationevent.entity.User;
+
+/**
+ * Outbox payload of a {@code UserRegisteredEvent}.
+ */
+public record UserRegisteredPayload(Long id, String firstName, String lastName, String email) {
+
+    public static final String EVENT_TYPE = "UserRegistered";
+
+    public User toUser() {
+        return User.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .role("USER")
+                .build();
+    }
+}
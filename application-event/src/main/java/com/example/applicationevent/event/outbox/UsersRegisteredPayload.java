@@ -0,0 +1,17 @@
+package com.example.applicationevent.event.outbox;
+
+import com.example.applicationevent.entity.User;
+
+import java.util.List;
+
+/**
+ * Outbox payload of a {@code UsersRegisteredEvent}, the users of one bulk registration chunk.
+ */
+public record UsersRegisteredPayload(List<UserRegisteredPayload> users) {
+
+    public static final String EVENT_TYPE = "UsersRegistered";
+
+    public List<User> toUsers() {
+        return users.stream().map(UserRegisteredPayload::toUser).toList();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.applicationevent.executor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the tasks of one listener on a shared executor, at most {@code maxConcurrency} of them at a time.
+ * <p>
+ * Tasks beyond the limit wait in a queue of at most {@code queueCapacity} tasks of this executor instead of taking
+ * threads of the shared one, so a slow listener cannot starve the others. The waiting and running tasks and the time
+ * spent waiting and running are published as {@code events.listener.*} meters tagged with the listener name.
+ * <p>
+ * A task rejected by the shared executor is rejected to the caller of {@link #execute} and not kept, so it never runs
+ * later behind the back of a caller that already handled the rejection.
+ */
+@Slf4j
+public class ConcurrencyLimitedExecutor implements TaskExecutor {
+
+    private final String listener;
+
+    private final Executor delegate;
+
+    private final int maxConcurrency;
+
+    private final int queueCapacity;
+
+    private final Object lock = new Object();
+
+    // Guarded by lock, the counters are read by the gauges without it
+    private final Queue<Runnable> pending = new ArrayDeque<>();
+
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final Timer queueWait;
+
+    private final Timer duration;
+
+    private final Counter rejected;
+
+    public ConcurrencyLimitedExecutor(String listener, Executor delegate, int maxConcurrency, int queueCapacity,
+                                      MeterRegistry meterRegistry) {
+        this.listener = listener;
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.queueWait = Timer.builder("events.listener.queue.wait")
+                .description("Time listener tasks waited for a free slot of their listener")
+                .tag("listener", listener)
+                .register(meterRegistry);
+        this.duration = Timer.builder("events.listener.duration")
+                .description("Run time of listener tasks")
+                .tag("listener", listener)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("events.listener.rejected")
+                .description("Listener tasks rejected because the queue of their listener was full or the shared "
+                        + "executor was saturated")
+                .tag("listener", listener)
+                .register(meterRegistry);
+        Gauge.builder("events.listener.pending", pendingCount, AtomicInteger::get)
+                .description("Listener tasks waiting for a free slot of their listener")
+                .tag("listener", listener)
+                .register(meterRegistry);
+        Gauge.builder("events.listener.active", running, AtomicInteger::get)
+                .description("Listener tasks handed to the shared executor and not finished yet")
+                .tag("listener", listener)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hand the task to the shared executor when this listener has a free slot, queue it otherwise.
+     *
+     * @throws TaskRejectedException when the queue is full or the shared executor rejects the task, the task is not
+     *                               kept then and never runs
+     */
+    @Override
+    public void execute(Runnable task) {
+        long submitted = System.nanoTime();
+        Runnable measured = () -> {
+            long start = System.nanoTime();
+            queueWait.record(start - submitted, TimeUnit.NANOSECONDS);
+            try {
+                task.run();
+            } finally {
+                duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+
+        synchronized (lock) {
+            if (running.get() < maxConcurrency) {
+                try {
+                    delegate.execute(() -> work(measured));
+                } catch (RuntimeException e) {
+                    rejected.increment();
+                    throw e;
+                }
+                running.incrementAndGet();
+                return;
+            }
+            if (pending.size() >= queueCapacity) {
+                rejected.increment();
+                throw new TaskRejectedException("Queue of listener " + listener + " is full (" + queueCapacity + ")");
+            }
+            pending.add(measured);
+            pendingCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Run the task, then the queued tasks of this listener on the same thread until the queue is empty.
+     * <p>
+     * Queued tasks are never handed to the shared executor, so only the caller of {@link #execute} sees a rejection,
+     * and the queue is only ever non-empty while all slots are taken by workers that will drain it.
+     */
+    private void work(Runnable task) {
+        Runnable next = task;
+        while (next != null) {
+            try {
+                next.run();
+            } catch (RuntimeException e) {
+                log.warn("Task of listener {} failed", listener, e);
+            }
+            synchronized (lock) {
+                next = pending.poll();
+                if (next == null) {
+                    running.decrementAndGet();
+                } else {
+                    pendingCount.decrementAndGet();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.applicationevent.executor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.Executor;
+import java.util.function.ToIntFunction;
+
+/**
+ * Creates one {@link ConcurrencyLimitedExecutor} per listener on a shared executor, each with its own limit, queue and
+ * {@code events.listener.*} meters tagged with the listener name.
+ */
+public class ListenerExecutorFactory {
+
+    private final Executor delegate;
+
+    private final ToIntFunction<String> maxConcurrency;
+
+    private final int queueCapacity;
+
+    private final MeterRegistry meterRegistry;
+
+    public ListenerExecutorFactory(Executor delegate, ToIntFunction<String> maxConcurrency, int queueCapacity,
+                                   MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public ConcurrencyLimitedExecutor create(String listener) {
+        return new ConcurrencyLimitedExecutor(listener, delegate, maxConcurrency.applyAsInt(listener), queueCapacity,
+                meterRegistry);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.applicationevent.executor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks on one of {@code lanes} single-threaded lanes chosen by the hash of a key, e.g. a user id.
+ * <p>
+ * The tasks of one key run one after the other in submission order, tasks of keys on different lanes run in parallel.
+ * Every lane queues at most {@code queueCapacity} tasks and rejects the next ones, so a hot key slows down its own lane
+ * only. The waiting time, run time, rejections and queued tasks of every lane are published as {@code events.lane.*}
+ * meters tagged with the executor name and the lane number.
+ */
+@Slf4j
+public class StripedExecutor {
+
+    private final String name;
+
+    private final Lane[] lanes;
+
+    private final Duration shutdownTimeout;
+
+    public StripedExecutor(String name, int lanes, int queueCapacity, Duration shutdownTimeout,
+                           MeterRegistry meterRegistry) {
+        if (lanes < 1) {
+            throw new IllegalArgumentException("At least one lane is needed, was " + lanes);
+        }
+        this.name = name;
+        this.shutdownTimeout = shutdownTimeout;
+        this.lanes = new Lane[lanes];
+        for (int i = 0; i < lanes; i++) {
+            this.lanes[i] = new Lane(i, queueCapacity, meterRegistry);
+        }
+    }
+
+    /**
+     * Queue the task on the lane of the key.
+     *
+     * @throws TaskRejectedException if the queue of the lane is full or the executor is shut down
+     */
+    public void execute(Object key, Runnable task) {
+        lanes[laneOf(key)].execute(task);
+    }
+
+    int laneOf(Object key) {
+        int hash = key.hashCode();
+        // Spread the high bits, keys like sequential ids differ in the low bits only
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    /**
+     * Run the queued tasks and stop the lanes, waiting at most {@code shutdownTimeout} for them.
+     */
+    public void shutdown() {
+        for (Lane lane : lanes) {
+            lane.executor.shutdown();
+        }
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        for (Lane lane : lanes) {
+            try {
+                if (!lane.executor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    log.warn("Lane {} of {} did not finish {} queued tasks before shutdown", lane.index, name,
+                            lane.executor.getQueue().size());
+                    lane.executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                lane.executor.shutdownNow();
+            }
+        }
+    }
+
+    private class Lane {
+        private final int index;
+        private final ThreadPoolExecutor executor;
+        private final Timer queueWait;
+        private final Timer duration;
+        private final Counter rejected;
+
+        private Lane(int index, int queueCapacity, MeterRegistry meterRegistry) {
+            this.index = index;
+            this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), task -> {
+                        Thread thread = new Thread(task, name + "-lane-" + index);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+            Tags tags = Tags.of("executor", name, "lane", String.valueOf(index));
+            this.queueWait = Timer.builder("events.lane.queue.wait")
+                    .description("Time tasks waited in the queue of their lane")
+                    .tags(tags)
+                    .register(meterRegistry);
+            this.duration = Timer.builder("events.lane.duration")
+                    .description("Run time of lane tasks")
+                    .tags(tags)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("events.lane.rejected")
+                    .description("Tasks rejected because the queue of their lane was full")
+                    .tags(tags)
+                    .register(meterRegistry);
+            Gauge.builder("events.lane.pending", executor, lane -> lane.getQueue().size())
+                    .description("Tasks waiting in the queue of the lane")
+                    .tags(tags)
+                    .register(meterRegistry);
+        }
+
+        private void execute(Runnable task) {
+            long submitted = System.nanoTime();
+            try {
+                executor.execute(() -> {
+                    long start = System.nanoTime();
+                    queueWait.record(start - submitted, TimeUnit.NANOSECONDS);
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        // Keep the lane thread, the next task of the lane runs right after
+                        log.warn("Task on lane {} of {} failed", index, name, e);
+                    } finally {
+                        duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                throw new TaskRejectedException("Lane " + index + " of " + name + " is full or shut down", e);
+            }
+        }
+    }
+}
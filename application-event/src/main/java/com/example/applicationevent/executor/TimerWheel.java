@@ -0,0 +1,174 @@
+package com.example.applicationevent.executor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs delayed tasks with one timer thread for all of them, like a hashed wheel timer.
+ * <p>
+ * The wheel has {@code wheelSize} buckets, one per {@code tick}. A task is put in the bucket of its deadline with the
+ * number of full turns it still has to wait, so scheduling and expiring a task costs the same however many tasks are
+ * waiting, and no thread sleeps per task. Deadlines are rounded up to the next tick. The timer thread only moves the
+ * tasks, expired tasks run on the {@code executor}.
+ * <p>
+ * The tasks are kept in memory only, the tasks waiting when the wheel stops are dropped.
+ */
+@Slf4j
+public class TimerWheel {
+
+    private final String name;
+
+    private final long tickNanos;
+
+    private final int mask;
+
+    // Only touched by the timer thread
+    private final List<Deque<Timeout>> buckets;
+
+    private long tick;
+
+    // Scheduled by any thread, put in their bucket by the timer thread at the next tick
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Executor executor;
+
+    private final long startTime = System.nanoTime();
+
+    private final Thread worker;
+
+    private volatile boolean running = true;
+
+    public TimerWheel(String name, Duration tick, int wheelSize, Executor executor) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of 2, was " + wheelSize);
+        }
+        this.name = name;
+        this.tickNanos = tick.toNanos();
+        this.mask = wheelSize - 1;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayDeque<>());
+        }
+        this.executor = executor;
+        this.worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Run the task on the executor once the delay has passed.
+     *
+     * @throws TaskRejectedException if the wheel is stopped
+     */
+    public Timeout schedule(Runnable task, Duration delay) {
+        if (!running) {
+            throw new TaskRejectedException("Timer wheel " + name + " is stopped");
+        }
+        Timeout timeout = new Timeout(task, System.nanoTime() - startTime + delay.toNanos());
+        pending.incrementAndGet();
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Tasks scheduled and not expired or cancelled yet.
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(tickNanos / 1_000_000 + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (pending.get() > 0) {
+            log.info("Timer wheel {} stopped with {} tasks waiting", name, pending.get());
+        }
+    }
+
+    private void run() {
+        while (running) {
+            long sleep = tickNanos * (tick + 1) - (System.nanoTime() - startTime);
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                continue;
+            }
+            transferScheduled();
+            expire(buckets.get((int) (tick & mask)));
+            tick++;
+        }
+    }
+
+    private void transferScheduled() {
+        Timeout timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.cancelled) {
+                pending.decrementAndGet();
+                continue;
+            }
+            // The last tick that ends before the deadline, or the current one for deadlines already passed
+            long deadlineTick = Math.max((timeout.deadline + tickNanos - 1) / tickNanos - 1, tick);
+            timeout.remainingRounds = (deadlineTick - tick) / buckets.size();
+            buckets.get((int) (deadlineTick & mask)).add(timeout);
+        }
+    }
+
+    private void expire(Deque<Timeout> bucket) {
+        Iterator<Timeout> timeouts = bucket.iterator();
+        while (timeouts.hasNext()) {
+            Timeout timeout = timeouts.next();
+            if (timeout.cancelled) {
+                timeouts.remove();
+                pending.decrementAndGet();
+            } else if (timeout.remainingRounds <= 0) {
+                timeouts.remove();
+                pending.decrementAndGet();
+                try {
+                    executor.execute(timeout.task);
+                } catch (RuntimeException e) {
+                    log.warn("Expired task of timer wheel {} rejected", name, e);
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    /**
+     * A scheduled task, can be cancelled until it expires.
+     */
+    public static final class Timeout {
+        private final Runnable task;
+        // Nanos since the start of the wheel
+        private final long deadline;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
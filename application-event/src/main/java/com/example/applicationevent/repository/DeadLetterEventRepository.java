@@ -0,0 +1,17 @@
+package com.example.applicationevent.repository;
+
+import com.example.applicationevent.entity.DeadLetterEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DeadLetterEventRepository extends JpaRepository<DeadLetterEvent, Long> {
+
+    @Query("select e from DeadLetterEvent e where :eventType is null or e.eventType = :eventType order by e.id")
+    List<DeadLetterEvent> findOldest(@Param("eventType") String eventType, Pageable pageable);
+}
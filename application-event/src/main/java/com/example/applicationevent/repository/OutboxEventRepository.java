@@ -0,0 +1,27 @@
+package com.example.applicationevent.repository;
+
+import com.example.applicationevent.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * The oldest events that may be delivered now. An aggregate with an event waiting for its retry is skipped
+     * entirely, so its later events do not overtake the failed one.
+     */
+    @Query("select e from OutboxEvent e where not exists (select r.id from OutboxEvent r"
+            + " where r.aggregateType = e.aggregateType and r.aggregateId = e.aggregateId and r.nextAttemptAt > :now)"
+            + " order by e.id")
+    List<OutboxEvent> findOldest(@Param("now") Instant now, Pageable pageable);
+
+    @Query("select min(e.createdAt) from OutboxEvent e")
+    Instant findOldestCreatedAt();
+}
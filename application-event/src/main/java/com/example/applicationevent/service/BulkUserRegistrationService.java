@@ -0,0 +1,288 @@
+package com.example.applicationevent.service;
+
+import com.example.applicationevent.dto.BulkRegistrationFailure;
+import com.example.applicationevent.dto.BulkRegistrationResult;
+import com.example.applicationevent.dto.UserRegisterDTO;
+import com.example.applicationevent.entity.User;
+import com.example.applicationevent.event.outbox.OutboxWriter;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Registers the users of a JSON array with JDBC batch inserts, committed in chunks with one {@code UsersRegistered}
+ * outbox event per chunk.
+ * <p>
+ * {@code User} uses an identity id, which disables Hibernate's insert batching, so the users are inserted with JDBC
+ * batches that return the generated ids. The array is parsed while it is read, only one chunk is held in memory.
+ * An invalid user is reported and skipped, the upload goes on. When the database rejects a batch, the chunk is inserted
+ * again user by user behind JDBC savepoints, so only the rejected users are skipped.
+ */
+@Service
+@Slf4j
+public class BulkUserRegistrationService {
+
+    private static final String INSERT_USER =
+            "insert into t_user (first_name, last_name, email, password, role, enabled) values (?, ?, ?, ?, ?, ?)";
+
+    // Column lengths of User
+    private static final int MAX_LENGTH = 255;
+    private static final int MAX_PASSWORD_LENGTH = 60;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final OutboxWriter outboxWriter;
+
+    private final ObjectMapper objectMapper;
+
+    private final int chunkSize;
+
+    private final int batchSize;
+
+    private final int maxReportedFailures;
+
+    public BulkUserRegistrationService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                       OutboxWriter outboxWriter, ObjectMapper objectMapper,
+                                       @Value("${users.bulk.chunk-size}") int chunkSize,
+                                       @Value("${users.bulk.batch-size}") int batchSize,
+                                       @Value("${users.bulk.max-reported-failures}") int maxReportedFailures) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.outboxWriter = outboxWriter;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+        this.maxReportedFailures = maxReportedFailures;
+    }
+
+    /**
+     * Register the {@link UserRegisterDTO users} of a JSON array.
+     * <p>
+     * Malformed JSON ends the upload, it is reported as a failure and the chunks committed before it stay registered.
+     */
+    public BulkRegistrationResult register(InputStream in) {
+        Upload upload = new Upload();
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                upload.fail(0, null, "Expected a JSON array of users");
+                return upload.finish();
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                upload.add(parser.readValueAsTree());
+            }
+        } catch (JsonProcessingException e) {
+            upload.fail(upload.received, null, "Malformed JSON, the rest of the upload was not read: "
+                    + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return upload.finish();
+    }
+
+    private String validate(UserRegisterDTO user) {
+        if (user == null) {
+            return "user is missing";
+        }
+        String reason = validateField("firstName", user.getFirstName(), MAX_LENGTH);
+        if (reason == null) {
+            reason = validateField("lastName", user.getLastName(), MAX_LENGTH);
+        }
+        if (reason == null) {
+            reason = validateField("email", user.getEmail(), MAX_LENGTH);
+        }
+        if (reason == null) {
+            reason = validateField("password", user.getPassword(), MAX_PASSWORD_LENGTH);
+        }
+        if (reason == null && !user.getEmail().contains("@")) {
+            reason = "email is invalid";
+        }
+        if (reason == null && !user.getPassword().equals(user.getMatchingPassword())) {
+            reason = "passwords do not match";
+        }
+        return reason;
+    }
+
+    private String validateField(String name, String value, int maxLength) {
+        if (value == null || value.isBlank()) {
+            return name + " is missing";
+        }
+        if (value.length() > maxLength) {
+            return name + " is longer than " + maxLength + " characters";
+        }
+        return null;
+    }
+
+    private void insert(Connection connection, List<PendingUser> users) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_USER, Statement.RETURN_GENERATED_KEYS)) {
+            for (int from = 0; from < users.size(); from += batchSize) {
+                List<PendingUser> batch = users.subList(from, Math.min(from + batchSize, users.size()));
+                for (PendingUser pending : batch) {
+                    User user = pending.user();
+                    ps.setString(1, user.getFirstName());
+                    ps.setString(2, user.getLastName());
+                    ps.setString(3, user.getEmail());
+                    ps.setString(4, user.getPassword());
+                    ps.setString(5, user.getRole());
+                    ps.setBoolean(6, user.isEnabled());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (PendingUser pending : batch) {
+                        keys.next();
+                        pending.user().setId(keys.getLong(1));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A valid user of the upload, waiting for its chunk to be committed.
+     */
+    private record PendingUser(long index, User user) {
+    }
+
+    /**
+     * The users and failures of one committed chunk.
+     */
+    private record ChunkOutcome(List<User> registered, List<BulkRegistrationFailure> failures) {
+    }
+
+    /**
+     * Collects the users of one upload and commits them chunk by chunk.
+     */
+    private class Upload {
+        private final long start = System.nanoTime();
+        // The chunks of an upload share one outbox aggregate, so their events are delivered in order
+        private final String uploadId = UUID.randomUUID().toString();
+        private final List<PendingUser> chunk = new ArrayList<>(chunkSize);
+        private final List<BulkRegistrationFailure> failures = new ArrayList<>();
+        private long received;
+        private long registered;
+        private long failed;
+        private int chunks;
+
+        private void add(JsonNode node) {
+            long index = received++;
+            UserRegisterDTO dto;
+            try {
+                dto = objectMapper.treeToValue(node, UserRegisterDTO.class);
+            } catch (JsonProcessingException e) {
+                fail(index, null, "user is invalid: " + e.getOriginalMessage());
+                return;
+            }
+
+            String reason = validate(dto);
+            if (reason != null) {
+                fail(index, dto != null ? dto.getEmail() : null, reason);
+                return;
+            }
+
+            chunk.add(new PendingUser(index, User.builder()
+                    .firstName(dto.getFirstName())
+                    .lastName(dto.getLastName())
+                    .email(dto.getEmail())
+                    .password(dto.getPassword())
+                    .role("USER")
+                    .build()));
+            if (chunk.size() >= chunkSize) {
+                commitChunk();
+            }
+        }
+
+        private BulkRegistrationResult finish() {
+            if (!chunk.isEmpty()) {
+                commitChunk();
+            }
+            long durationMillis = (System.nanoTime() - start) / 1_000_000;
+            log.info("Registered {} of {} users in {} chunks in {} ms", registered, received, chunks, durationMillis);
+            return new BulkRegistrationResult(received, registered, failed, chunks, durationMillis, failures);
+        }
+
+        private void commitChunk() {
+            try {
+                ChunkOutcome outcome = transactionTemplate.execute(this::insertChunk);
+                registered += outcome.registered().size();
+                outcome.failures().forEach(failure -> fail(failure.getIndex(), failure.getEmail(), failure.getReason()));
+            } catch (RuntimeException e) {
+                log.warn("Chunk of {} users of upload {} not registered", chunk.size(), uploadId, e);
+                String reason = "not saved: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                chunk.forEach(pending -> fail(pending.index(), pending.user().getEmail(), reason));
+            }
+            chunks++;
+            chunk.clear();
+        }
+
+        private ChunkOutcome insertChunk(TransactionStatus status) {
+            ChunkOutcome outcome = jdbcTemplate.execute((ConnectionCallback<ChunkOutcome>) this::insertChunk);
+            if (!outcome.registered().isEmpty()) {
+                outboxWriter.usersRegistered(uploadId, outcome.registered());
+            }
+            return outcome;
+        }
+
+        private ChunkOutcome insertChunk(Connection connection) throws SQLException {
+            List<User> users = new ArrayList<>(chunk.size());
+            List<BulkRegistrationFailure> rejected = new ArrayList<>();
+
+            Savepoint chunkSavepoint = connection.setSavepoint();
+            try {
+                insert(connection, chunk);
+                chunk.forEach(pending -> users.add(pending.user()));
+                return new ChunkOutcome(users, rejected);
+            } catch (SQLException e) {
+                connection.rollback(chunkSavepoint);
+            }
+
+            // Find the users the database rejects, one statement each
+            for (PendingUser pending : chunk) {
+                Savepoint savepoint = connection.setSavepoint();
+                try {
+                    insert(connection, List.of(pending));
+                    users.add(pending.user());
+                    connection.releaseSavepoint(savepoint);
+                } catch (SQLException e) {
+                    connection.rollback(savepoint);
+                    rejected.add(new BulkRegistrationFailure(pending.index(), pending.user().getEmail(),
+                            "not saved: " + e.getMessage()));
+                }
+            }
+            return new ChunkOutcome(users, rejected);
+        }
+
+        private void fail(long index, String email, String reason) {
+            failed++;
+            if (failures.size() < maxReportedFailures) {
+                failures.add(new BulkRegistrationFailure(index, email, reason));
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.applicationevent.service;
+
+import com.example.applicationevent.dto.UserRegisterDTO;
+import com.example.applicationevent.entity.User;
+import com.example.applicationevent.event.outbox.OutboxWriter;
+import com.example.applicationevent.repository.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class UserRegistrationService {
+
+    private final UserRepository userRepository;
+
+    private final OutboxWriter outboxWriter;
+
+    public UserRegistrationService(UserRepository userRepository, OutboxWriter outboxWriter) {
+        this.userRepository = userRepository;
+        this.outboxWriter = outboxWriter;
+    }
+
+    /**
+     * Save the user and its {@code UserRegistered} outbox event in the same transaction.
+     * <p>
+     * The {@code OutboxRelay} publishes the event once the transaction has committed, and never when it rolls back.
+     * A crash before the delivery only delays it.
+     */
+    @Transactional
+    public User register(UserRegisterDTO userRegisterDTO) {
+        User user = User.builder()
+                .firstName(userRegisterDTO.getFirstName())
+                .lastName(userRegisterDTO.getLastName())
+                .email(userRegisterDTO.getEmail())
+                .password(userRegisterDTO.getPassword())
+                .role("USER")
+                .build();
+
+        userRepository.save(user);
+
+        // record the event, the outbox relay publishes it
+        outboxWriter.userRegistered(user);
+        return user;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.applicationevent.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class DeadLetterControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void listsWithLimitInRange() throws Exception {
+        mockMvc.perform(get("/admin/dead-letters").param("limit", "1")).andExpect(status().isOk());
+        mockMvc.perform(get("/admin/dead-letters")).andExpect(status().isOk());
+    }
+
+    @Test
+    void rejectsLimitOutOfRange() throws Exception {
+        mockMvc.perform(get("/admin/dead-letters").param("limit", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/admin/dead-letters").param("limit", "-5")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/admin/dead-letters").param("limit", "1001")).andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.applicationevent.event.bus;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferEventBusTest {
+
+    private static final int EVENTS_PER_WRITER = 10_000;
+
+    record WriterEvent(int writer, int index) {
+    }
+
+    static class RecordingListener {
+        // Only touched by the thread of the default group
+        final List<WriterEvent> events = new ArrayList<>();
+
+        @EventListener
+        public void on(WriterEvent event) {
+            events.add(event);
+        }
+    }
+
+    @EventBusGroup("audit")
+    static class CountingListener {
+        final AtomicInteger count = new AtomicInteger();
+
+        @EventListener
+        public void on(WriterEvent event) {
+            count.incrementAndGet();
+        }
+    }
+
+    static class BlockedListener {
+        private final CountDownLatch release;
+
+        BlockedListener(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @EventListener
+        public void on(WriterEvent event) throws InterruptedException {
+            release.await();
+        }
+    }
+
+    @Test
+    void singleWriterDeliversEveryEventInOrder() {
+        AnnotationConfigApplicationContext context = newContext("single");
+        RingBufferEventBus bus = context.getBean(RingBufferEventBus.class);
+        RecordingListener recording = context.getBean(RecordingListener.class);
+        CountingListener counting = context.getBean(CountingListener.class);
+        assertEquals(List.of("audit", "default"), bus.getGroupNames());
+
+        for (int i = 0; i < EVENTS_PER_WRITER; i++) {
+            bus.publish(new WriterEvent(0, i));
+        }
+        context.close();
+
+        List<WriterEvent> events = recording.events;
+        assertEquals(EVENTS_PER_WRITER, events.size());
+        for (int i = 0; i < EVENTS_PER_WRITER; i++) {
+            assertEquals(i, events.get(i).index());
+        }
+        assertEquals(EVENTS_PER_WRITER, counting.count.get());
+    }
+
+    @Test
+    void multiWriterDeliversEveryEventInWriterOrder() throws Exception {
+        AnnotationConfigApplicationContext context = newContext("multi");
+        RingBufferEventBus bus = context.getBean(RingBufferEventBus.class);
+        RecordingListener recording = context.getBean(RecordingListener.class);
+        CountingListener counting = context.getBean(CountingListener.class);
+
+        int writers = 4;
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < EVENTS_PER_WRITER; i++) {
+                    bus.publish(new WriterEvent(writer, i));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        context.close();
+
+        List<WriterEvent> events = recording.events;
+        assertEquals(writers * EVENTS_PER_WRITER, events.size());
+        int[] nextIndex = new int[writers];
+        for (WriterEvent event : events) {
+            assertEquals(nextIndex[event.writer()]++, event.index());
+        }
+        assertEquals(writers * EVENTS_PER_WRITER, counting.count.get());
+    }
+
+    @Test
+    void clearsProcessedSlots() {
+        AnnotationConfigApplicationContext context = newContext("multi");
+        RingBufferEventBus bus = context.getBean(RingBufferEventBus.class);
+
+        for (int i = 0; i < 100; i++) {
+            bus.publish(new WriterEvent(0, i));
+        }
+        context.close();
+
+        for (RingBufferEventBus.Slot slot : bus.getSlots()) {
+            assertNull(slot.event);
+        }
+    }
+
+    @Test
+    void publishFailsOnceStopped() {
+        AnnotationConfigApplicationContext context = newContext("multi");
+        RingBufferEventBus bus = context.getBean(RingBufferEventBus.class);
+        context.close();
+
+        assertThrows(IllegalStateException.class, () -> bus.publish(new WriterEvent(0, 0)));
+    }
+
+    @Test
+    void writerWaitingForFullBufferFailsOnStop() throws Exception {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        CountDownLatch release = new CountDownLatch(1);
+        context.registerBean(BlockedListener.class, () -> new BlockedListener(release));
+        context.registerBean(RingBufferEventBus.class, () -> new RingBufferEventBus(context, 64, "multi",
+                WaitStrategy.of("blocking"), Duration.ofMillis(100)));
+        context.refresh();
+        RingBufferEventBus bus = context.getBean(RingBufferEventBus.class);
+
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 1000; i++) {
+                bus.publish(new WriterEvent(0, i));
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(writer.isDone());
+        context.close();
+        release.countDown();
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> writer.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, ex.getCause());
+    }
+
+    private AnnotationConfigApplicationContext newContext(String writers) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.registerBean(RecordingListener.class);
+        context.registerBean(CountingListener.class);
+        // A small buffer, so the writers wrap around many times
+        context.registerBean(RingBufferEventBus.class, () -> new RingBufferEventBus(context, 64, writers,
+                WaitStrategy.of("blocking"), Duration.ofSeconds(10)));
+        context.refresh();
+        return context;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.applicationevent.event.outbox;
+
+import com.example.applicationevent.dto.UserRegisterDTO;
+import com.example.applicationevent.entity.DeadLetterEvent;
+import com.example.applicationevent.event.UserRegisteredEvent;
+import com.example.applicationevent.event.batch.BatchEventListener;
+import com.example.applicationevent.repository.OutboxEventRepository;
+import com.example.applicationevent.service.UserRegistrationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"events.outbox.poll-interval=PT0.1S", "events.outbox.max-wait=500ms",
+        "events.retry.initial-delay=100ms", "events.retry.max-attempts=3"})
+class OutboxRelayTest {
+
+    @Autowired
+    private UserRegistrationService userRegistrationService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private DeadLetterStore deadLetterStore;
+
+    @Autowired
+    private RecordingListener recordingListener;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void deliversAfterCommitAndRetriesFailures() throws Exception {
+        register("anna@example.com");
+        register("fail-once@example.com");
+        register("otto@example.com");
+
+        assertTrue(await(() -> outboxEventRepository.count() == 0));
+        assertTrue(recordingListener.delivered.containsAll(
+                List.of("anna@example.com", "fail-once@example.com", "otto@example.com")));
+        // The failed delivery was retried by a later poll
+        assertEquals(2, recordingListener.attempts.stream().filter("fail-once@example.com"::equals).count());
+    }
+
+    @Test
+    void deliversBurstInOneBatch() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            register("burst-" + i + "@example.com");
+        }
+
+        assertTrue(await(() -> recordingListener.batches.stream().mapToInt(List::size).sum() >= 5));
+        // The window held the events until the oldest had waited for max-wait
+        assertTrue(recordingListener.batches.stream().anyMatch(batch -> batch.size() > 1));
+    }
+
+    @Test
+    void deadLettersAfterLastAttemptAndReplays() throws Exception {
+        register("always-fail@example.com");
+
+        assertTrue(await(() -> !deadLetterStore.findOldest(UserRegisteredPayload.EVENT_TYPE, 10).isEmpty()));
+        DeadLetterEvent deadLetter = deadLetterStore.findOldest(UserRegisteredPayload.EVENT_TYPE, 10).get(0);
+        assertEquals(3, deadLetter.getAttempts());
+        assertTrue(deadLetter.getLastError().contains("Mail server unavailable"));
+        assertEquals(3, recordingListener.attempts.stream().filter("always-fail@example.com"::equals).count());
+
+        recordingListener.failing = false;
+        assertEquals(1, deadLetterStore.replay(List.of(deadLetter.getId()), null));
+        assertTrue(await(() -> recordingListener.delivered.contains("always-fail@example.com")));
+        assertTrue(deadLetterStore.findOldest(UserRegisteredPayload.EVENT_TYPE, 10).isEmpty());
+    }
+
+    @Test
+    void chargesOnlyTheEventsTheBatchListenerFailsOn() throws Exception {
+        register("batch-ok-1@example.com");
+        register("poison@example.com");
+        register("batch-ok-2@example.com");
+
+        assertTrue(await(() -> !deadLetterStore.findOldest(UserRegisteredPayload.EVENT_TYPE, 10).isEmpty()));
+        List<DeadLetterEvent> deadLetters = deadLetterStore.findOldest(UserRegisteredPayload.EVENT_TYPE, 10);
+        assertEquals(1, deadLetters.size());
+        assertTrue(deadLetters.get(0).getPayload().contains("poison@example.com"));
+        assertTrue(recordingListener.batchDelivered.containsAll(
+                List.of("batch-ok-1@example.com", "batch-ok-2@example.com")));
+
+        recordingListener.poisoned = false;
+        deadLetterStore.replay(List.of(deadLetters.get(0).getId()), null);
+        assertTrue(await(() -> recordingListener.batchDelivered.contains("poison@example.com")));
+    }
+
+    @Test
+    void limitsEveryBatchListenerOnItsOwnExecutor() throws Exception {
+        register("limited@example.com");
+
+        assertTrue(await(() -> recordingListener.batchDelivered.contains("limited@example.com")));
+        for (String listener : List.of("recordingListener", "userRegisteredListener")) {
+            assertTrue(await(() -> meterRegistry.get("events.listener.duration").tag("listener", listener).timer()
+                    .count() > 0));
+        }
+    }
+
+    private void register(String email) {
+        userRegistrationService.register(new UserRegisterDTO("First", "Last", email, "12345678", "12345678"));
+    }
+
+    private boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(50);
+        }
+        return true;
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener implements BatchEventListener<UserRegisteredEvent> {
+        private final List<String> attempts = new CopyOnWriteArrayList<>();
+        private final List<String> delivered = new CopyOnWriteArrayList<>();
+        private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+        private final List<String> batchDelivered = new CopyOnWriteArrayList<>();
+        private volatile boolean failing = true;
+        private volatile boolean poisoned = true;
+
+        @Override
+        public Class<UserRegisteredEvent> getEventType() {
+            return UserRegisteredEvent.class;
+        }
+
+        @Override
+        public void onEvents(List<UserRegisteredEvent> events) {
+            List<String> emails = events.stream().map(event -> event.getUser().getEmail()).toList();
+            if (poisoned && emails.contains("poison@example.com")) {
+                throw new IllegalStateException("Cannot send to poison@example.com");
+            }
+            batchDelivered.addAll(emails);
+            if (emails.stream().allMatch(email -> email.startsWith("burst-"))) {
+                batches.add(emails);
+            }
+        }
+
+        @EventListener
+        public void onUserRegistered(UserRegisteredEvent event) {
+            String email = event.getUser().getEmail();
+            attempts.add(email);
+            if (email.startsWith("fail-once") && attempts.stream().filter(email::equals).count() == 1) {
+                throw new IllegalStateException("Mail server unavailable");
+            }
+            if (email.startsWith("always-fail") && failing) {
+                throw new IllegalStateException("Mail server unavailable");
+            }
+            delivered.add(email);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.applicationevent.executor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitedExecutorTest {
+
+    private final ExecutorService shared = Executors.newFixedThreadPool(8);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        shared.shutdownNow();
+    }
+
+    @Test
+    void runsAtMostMaxConcurrencyTasks() throws Exception {
+        ConcurrencyLimitedExecutor executor = new ConcurrencyLimitedExecutor("test", shared, 2, 100, meterRegistry);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(20);
+
+        for (int i = 0; i < 20; i++) {
+            executor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+        assertEquals(20, meterRegistry.get("events.listener.queue.wait").tag("listener", "test").timer().count());
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        ConcurrencyLimitedExecutor executor = new ConcurrencyLimitedExecutor("test", shared, 1, 1, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(() -> {
+        });
+
+        assertThrows(TaskRejectedException.class, () -> executor.execute(() -> {
+        }));
+        assertEquals(1, meterRegistry.get("events.listener.rejected").counter().count());
+        release.countDown();
+    }
+
+    @Test
+    void rejectsWithoutKeepingTaskWhenSharedExecutorIsSaturated() throws Exception {
+        ThreadPoolExecutor saturated = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+        try {
+            ConcurrencyLimitedExecutor executor = new ConcurrencyLimitedExecutor("test", saturated, 2, 10,
+                    meterRegistry);
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch started = new CountDownLatch(1);
+            executor.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // A free slot of the listener, but no thread of the shared executor
+            AtomicInteger rejectedRuns = new AtomicInteger();
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(rejectedRuns::incrementAndGet));
+            assertEquals(1, meterRegistry.get("events.listener.rejected").counter().count());
+            assertEquals(0, meterRegistry.get("events.listener.pending").gauge().value());
+
+            release.countDown();
+            CountDownLatch ran = new CountDownLatch(1);
+            // Retry until the worker of the first task has returned its thread
+            assertTrue(await(() -> {
+                try {
+                    executor.execute(ran::countDown);
+                    return true;
+                } catch (RejectedExecutionException e) {
+                    return false;
+                }
+            }));
+            assertTrue(ran.await(5, TimeUnit.SECONDS));
+            assertEquals(0, rejectedRuns.get());
+        } finally {
+            saturated.shutdownNow();
+        }
+    }
+
+    @Test
+    void runsQueuedTasksOnTheWorkersOfTheListener() throws Exception {
+        AtomicInteger handedOver = new AtomicInteger();
+        Executor counting = task -> {
+            handedOver.incrementAndGet();
+            shared.execute(task);
+        };
+        ConcurrencyLimitedExecutor executor = new ConcurrencyLimitedExecutor("test", counting, 1, 100,
+                meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(5);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.countDown();
+        });
+        for (int i = 0; i < 4; i++) {
+            executor.execute(done::countDown);
+        }
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        // The queued tasks never went through the shared executor, so it had nothing to reject
+        assertEquals(1, handedOver.get());
+    }
+
+    private boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.applicationevent.executor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private StripedExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void runsTasksOfOneKeyInOrderAndOtherLanesInParallel() throws Exception {
+        executor = new StripedExecutor("test", 2, 1000, Duration.ofSeconds(5), meterRegistry);
+        String blocked = "user-1";
+        String other = IntStream.range(2, 100).mapToObj(i -> "user-" + i)
+                .filter(key -> executor.laneOf(key) != executor.laneOf(blocked))
+                .findFirst()
+                .orElseThrow();
+
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        executor.execute(blocked, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        for (int i = 0; i < 100; i++) {
+            int task = i;
+            executor.execute(blocked, () -> order.add(task));
+        }
+
+        // The other lane is not held up by the blocked one
+        CountDownLatch otherDone = new CountDownLatch(1);
+        executor.execute(other, otherDone::countDown);
+        assertTrue(otherDone.await(5, TimeUnit.SECONDS));
+        assertTrue(order.isEmpty());
+
+        release.countDown();
+        executor.shutdown();
+        assertEquals(IntStream.range(0, 100).boxed().toList(), order);
+    }
+
+    @Test
+    void rejectsWhenLaneQueueIsFull() throws Exception {
+        executor = new StripedExecutor("test", 1, 1, Duration.ofSeconds(5), meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        executor.execute("user-1", () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute("user-1", () -> {
+        });
+
+        assertThrows(TaskRejectedException.class, () -> executor.execute("user-2", () -> {
+        }));
+        assertEquals(1, meterRegistry.get("events.lane.rejected").tags("executor", "test", "lane", "0").counter().count());
+        assertEquals(1, meterRegistry.get("events.lane.pending").tags("executor", "test", "lane", "0").gauge().value());
+        release.countDown();
+    }
+}
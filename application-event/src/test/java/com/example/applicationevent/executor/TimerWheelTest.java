@@ -0,0 +1,57 @@
+package com.example.applicationevent.executor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+
+    // Small wheel, so the longer delays need more than one turn
+    private final TimerWheel timerWheel = new TimerWheel("test", Duration.ofMillis(10), 8, Runnable::run);
+
+    @AfterEach
+    void tearDown() {
+        timerWheel.stop();
+    }
+
+    @Test
+    void runsTasksAfterTheirDelayInDeadlineOrder() throws Exception {
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        long start = System.nanoTime();
+        long[] elapsedMillis = new long[3];
+
+        for (int delay : new int[]{250, 50, 150}) {
+            int task = delay / 100;
+            timerWheel.schedule(() -> {
+                elapsedMillis[task] = (System.nanoTime() - start) / 1_000_000;
+                order.add(delay);
+                done.countDown();
+            }, Duration.ofMillis(delay));
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(50, 150, 250), order);
+        assertTrue(elapsedMillis[0] >= 50);
+        assertTrue(elapsedMillis[1] >= 150);
+        assertTrue(elapsedMillis[2] >= 250);
+        assertEquals(0, timerWheel.getPending());
+    }
+
+    @Test
+    void cancelledTaskDoesNotRun() throws Exception {
+        CountDownLatch ran = new CountDownLatch(1);
+        TimerWheel.Timeout timeout = timerWheel.schedule(ran::countDown, Duration.ofMillis(50));
+        timeout.cancel();
+
+        assertFalse(ran.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(0, timerWheel.getPending());
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.applicationevent.service;
+
+import com.example.applicationevent.dto.BulkRegistrationFailure;
+import com.example.applicationevent.dto.BulkRegistrationResult;
+import com.example.applicationevent.event.UsersRegisteredEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"users.bulk.chunk-size=2", "users.bulk.batch-size=2",
+        "events.outbox.poll-interval=PT0.1S", "events.outbox.max-wait=0s"})
+class BulkUserRegistrationServiceTest {
+
+    @Autowired
+    private BulkUserRegistrationService bulkUserRegistrationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecordingListener recordingListener;
+
+    @Test
+    void skipsInvalidUsersAndPublishesOneEventPerChunk() throws Exception {
+        BulkRegistrationResult result = register("[" + user("chunk-1") + "," + user("chunk-2") + ","
+                + "{\"firstName\": \"No\", \"lastName\": \"Match\", \"email\": \"chunk-x@example.com\", "
+                + "\"password\": \"12345678\", \"matchingPassword\": \"other\"},"
+                + "42," + user("chunk-3") + "]");
+
+        assertEquals(5, result.getReceived());
+        assertEquals(3, result.getRegistered());
+        assertEquals(2, result.getFailed());
+        assertEquals(2, result.getChunks());
+        assertEquals(List.of(2L, 3L), result.getFailures().stream().map(BulkRegistrationFailure::getIndex).toList());
+        assertEquals("passwords do not match", result.getFailures().get(0).getReason());
+        assertEquals(3, countUsers("chunk-%"));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (recordingListener.chunks.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(List.of(List.of("chunk-1@example.com", "chunk-2@example.com"), List.of("chunk-3@example.com")),
+                recordingListener.chunks);
+    }
+
+    @Test
+    void reportsUsersRejectedByTheDatabase() {
+        jdbcTemplate.execute("alter table t_user add constraint ck_no_rejected check (email <> 'reject@example.com')");
+        try {
+            BulkRegistrationResult result = register("[" + user("reject-before") + "," + user("reject") + ","
+                    + user("reject-after") + "]");
+
+            assertEquals(2, result.getRegistered());
+            assertEquals(1, result.getFailed());
+            assertEquals(1, result.getFailures().get(0).getIndex());
+            assertTrue(result.getFailures().get(0).getReason().startsWith("not saved"));
+            assertEquals(2, countUsers("reject-%"));
+        } finally {
+            jdbcTemplate.execute("alter table t_user drop constraint ck_no_rejected");
+        }
+    }
+
+    @Test
+    void keepsCommittedChunksOfMalformedUpload() {
+        BulkRegistrationResult result = register("[" + user("malformed-1") + "," + user("malformed-2") + ",{\"firstName\"");
+
+        assertEquals(2, result.getRegistered());
+        assertEquals(1, result.getFailed());
+        assertTrue(result.getFailures().get(0).getReason().startsWith("Malformed JSON"));
+        assertEquals(2, countUsers("malformed-%"));
+    }
+
+    private BulkRegistrationResult register(String json) {
+        return bulkUserRegistrationService.register(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String user(String name) {
+        return "{\"firstName\": \"First\", \"lastName\": \"Last\", \"email\": \"" + name + "@example.com\", "
+                + "\"password\": \"12345678\", \"matchingPassword\": \"12345678\"}";
+    }
+
+    private int countUsers(String emailPattern) {
+        return jdbcTemplate.queryForObject("select count(*) from t_user where email like ?", Integer.class,
+                emailPattern);
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener {
+        private final List<List<String>> chunks = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        public void onUsersRegistered(UsersRegisteredEvent event) {
+            List<String> emails = event.getUsers().stream().map(user -> user.getEmail()).toList();
+            if (emails.get(0).startsWith("chunk-")) {
+                chunks.add(emails);
+            }
+        }
+    }
+}
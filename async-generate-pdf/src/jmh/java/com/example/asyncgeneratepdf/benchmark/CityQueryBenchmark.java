@@ -0,0 +1,112 @@
+package com.example.asyncgeneratepdf.benchmark;
+
+import com.example.asyncgeneratepdf.Application;
+import com.example.asyncgeneratepdf.entity.City;
+import com.example.asyncgeneratepdf.service.CityStreamService;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * Compares reading the report rows as {@code City} entities with the {@code CityRow} projection of
+ * {@code CityRepository.streamRows()}, on the H2 database of the application filled with generated cities.
+ * <p>
+ * Only the reading and the text of every row are measured, not the PDF. Run it with {@code -prof gc} for the
+ * allocations per read.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CityQueryBenchmark {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private EntityManager entityManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private CityStreamService cityStreamService;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN")
+                .run();
+        entityManager = context.getBean(EntityManager.class);
+        cityStreamService = context.getBean(CityStreamService.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (int start = 0; start < rows; start += BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            for (int id = start; id < Math.min(rows, start + BATCH_SIZE); id++) {
+                batch.add(new Object[]{"City " + id, id});
+            }
+            jdbcTemplate.batchUpdate("insert into t_city(name, population) values (?, ?)", batch);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * How the reports read the cities before: managed entities, detached one by one, and Lombok's toString.
+     */
+    @Benchmark
+    public void entities(Blackhole blackhole) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<City> cities = entityManager.createQuery("select c from City c order by c.id", City.class)
+                    .setHint(HINT_FETCH_SIZE, 500)
+                    .setHint(HINT_READ_ONLY, true)
+                    .getResultStream()) {
+                cities.forEach(city -> {
+                    entityManager.detach(city);
+                    blackhole.consume(city.toString());
+                });
+            }
+        });
+    }
+
+    @Benchmark
+    public void projection(Blackhole blackhole) {
+        cityStreamService.readCities(cities -> cities.forEach(
+                city -> blackhole.consume(city.name() + ", population " + city.population())));
+    }
+}
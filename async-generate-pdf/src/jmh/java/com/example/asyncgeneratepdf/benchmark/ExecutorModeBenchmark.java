@@ -0,0 +1,127 @@
+package com.example.asyncgeneratepdf.benchmark;
+
+import com.example.asyncgeneratepdf.dto.CityRow;
+import com.example.asyncgeneratepdf.executor.VirtualThreadTaskExecutor;
+import com.example.asyncgeneratepdf.service.CityPdfWriter;
+import com.example.asyncgeneratepdf.service.PdfResources;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Compares the thread pool of {@code AsyncConfig} with the virtual thread mode for a report job that blocks on the
+ * database, renders a small PDF and blocks on storage.
+ * <p>
+ * Every JMH thread is one client waiting for its report, run it with {@code -t 10}, {@code -t 100} and
+ * {@code -t 1000} for the different numbers of concurrent requests.
+ * <p>
+ * Only the platform mode runs by default, the project is built for Java 17. The virtual mode needs Java 21, add it
+ * with {@code -p mode=platform,virtual} there, on an older JVM its setup fails with a message saying so.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExecutorModeBenchmark {
+
+    // Simulated database read and storage write of a report job
+    private static final long DB_READ_MILLIS = 20;
+    private static final long STORAGE_WRITE_MILLIS = 5;
+
+    @Param({"platform"})
+    private String mode;
+
+    @Param({"50"})
+    private int maxConcurrency;
+
+    private AsyncTaskExecutor executor;
+
+    private ForkJoinPool partitionPool;
+
+    private CityPdfWriter cityPdfWriter;
+
+    private List<CityRow> cities;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Rejections {
+        public long rejected;
+    }
+
+    @Setup
+    public void setUp() {
+        if (mode.equals("platform")) {
+            // Same settings as AsyncConfig.pdfThreadPool
+            ThreadPoolTaskExecutor threadPool = new ThreadPoolTaskExecutor();
+            threadPool.setCorePoolSize(2);
+            threadPool.setMaxPoolSize(10);
+            threadPool.setQueueCapacity(500);
+            threadPool.setThreadNamePrefix("pdf-");
+            threadPool.initialize();
+            executor = threadPool;
+        } else {
+            if (Runtime.version().feature() < 21) {
+                throw new IllegalStateException("The virtual mode needs Java 21, running on Java "
+                        + Runtime.version().feature());
+            }
+            executor = new VirtualThreadTaskExecutor("pdf-virtual-", maxConcurrency);
+        }
+
+        partitionPool = new ForkJoinPool(1);
+        cityPdfWriter = new CityPdfWriter(partitionPool, 0, new PdfResources());
+        cities = LongStream.rangeClosed(1, 100)
+                .mapToObj(id -> new CityRow("City " + id, (int) id * 1000))
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (executor instanceof ThreadPoolTaskExecutor threadPool) {
+            threadPool.shutdown();
+        }
+        partitionPool.shutdown();
+    }
+
+    @Benchmark
+    public int reportJob(Rejections rejections) throws InterruptedException, ExecutionException {
+        try {
+            return executor.submit(this::runReportJob).get();
+        } catch (TaskRejectedException e) {
+            rejections.rejected++;
+            return 0;
+        }
+    }
+
+    private int runReportJob() throws InterruptedException {
+        Thread.sleep(DB_READ_MILLIS);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        cityPdfWriter.write(cities.stream(), baos, renderedRows -> {
+        });
+
+        Thread.sleep(STORAGE_WRITE_MILLIS);
+        return baos.size();
+    }
+}
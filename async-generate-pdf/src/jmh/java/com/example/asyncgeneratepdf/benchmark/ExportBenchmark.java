@@ -0,0 +1,113 @@
+package com.example.asyncgeneratepdf.benchmark;
+
+import com.example.asyncgeneratepdf.dto.CityRow;
+import com.example.asyncgeneratepdf.export.CityExporter;
+import com.example.asyncgeneratepdf.export.CsvCityExporter;
+import com.example.asyncgeneratepdf.export.NdjsonCityExporter;
+import com.example.asyncgeneratepdf.export.PdfCityExporter;
+import com.example.asyncgeneratepdf.service.CityPdfWriter;
+import com.example.asyncgeneratepdf.service.PdfResources;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Compares the throughput of the PDF, CSV and NDJSON exporters over the same generated cities.
+ * <p>
+ * Like {@link RenderBenchmark} the rows are generated while they are exported and the output only counts the bytes,
+ * so the score is the cost of the format. The {@code rows} and {@code bytes} counters are reported per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ExportBenchmark {
+
+    @Param({"pdf", "csv", "ndjson"})
+    private String format;
+
+    @Param({"100000"})
+    private int rows;
+
+    private ForkJoinPool partitionPool;
+
+    private CityExporter exporter;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Output {
+        public long bytes;
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            rows = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        // Same as AsyncConfig.pdfPartitionPool and the default pdf.render.partition-size
+        partitionPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        exporter = switch (format) {
+            case "pdf" -> new PdfCityExporter(new CityPdfWriter(partitionPool, 10_000, new PdfResources()));
+            case "csv" -> new CsvCityExporter();
+            case "ndjson" -> new NdjsonCityExporter(new ObjectMapper());
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        partitionPool.shutdown();
+    }
+
+    @Benchmark
+    public long export(Output output) {
+        CountingOutputStream out = new CountingOutputStream();
+        exporter.export(cities(), out);
+
+        output.bytes += out.count;
+        output.rows += rows;
+        return out.count;
+    }
+
+    private Stream<CityRow> cities() {
+        return LongStream.rangeClosed(1, rows).mapToObj(id -> new CityRow("City " + id, (int) (id % 10_000_000)));
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.asyncgeneratepdf.benchmark;
+
+import com.example.asyncgeneratepdf.dto.CityRow;
+import com.example.asyncgeneratepdf.service.CityPdfWriter;
+import com.example.asyncgeneratepdf.service.PdfResources;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Measures the first report rendered by a fresh JVM, with and without the startup warm-up of {@link CityPdfWriter}.
+ */
+@Fork(1)
+public class PdfResourcesBenchmark {
+
+    private static final int ROWS = 100;
+
+    @State(Scope.Benchmark)
+    public static class Startup {
+
+        // none: resources are loaded by the first report, warmed: loaded and warmed up before it, like the application
+        @Param({"none", "warmed"})
+        private String startup;
+
+        private ForkJoinPool partitionPool;
+
+        private CityPdfWriter cityPdfWriter;
+
+        @Setup
+        public void setUp() {
+            partitionPool = new ForkJoinPool(1);
+            if (startup.equals("warmed")) {
+                cityPdfWriter = new CityPdfWriter(partitionPool, 0, new PdfResources());
+                cityPdfWriter.warmUp();
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            partitionPool.shutdown();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public void firstReport(Startup state) {
+        CityPdfWriter cityPdfWriter = state.cityPdfWriter != null
+                ? state.cityPdfWriter
+                : new CityPdfWriter(state.partitionPool, 0, new PdfResources());
+        cityPdfWriter.write(LongStream.rangeClosed(1, ROWS).mapToObj(id -> new CityRow("City " + id, 0)),
+                OutputStream.nullOutputStream(), renderedRows -> {
+                });
+    }
+}
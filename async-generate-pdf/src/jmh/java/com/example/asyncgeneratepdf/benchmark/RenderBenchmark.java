@@ -0,0 +1,110 @@
+package com.example.asyncgeneratepdf.benchmark;
+
+import com.example.asyncgeneratepdf.dto.CityRow;
+import com.example.asyncgeneratepdf.service.CityPdfWriter;
+import com.example.asyncgeneratepdf.service.PdfResources;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Measures the iText rendering path of the city report, without the database.
+ * <p>
+ * The cities are generated while the report is rendered, like the rows of {@code CityRepository.streamRows()}, and
+ * the PDF is written to a stream that only counts the bytes, so the allocations are the ones of the render. Run it
+ * with {@code -prof gc} for the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int rows;
+
+    // 0 renders a single document, 10000 is the default of pdf.render.partition-size
+    @Param({"10000"})
+    private int partitionSize;
+
+    private ForkJoinPool partitionPool;
+
+    private CityPdfWriter cityPdfWriter;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Output {
+        public long bytes;
+        public long reports;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            reports = 0;
+        }
+
+        public long bytesPerReport() {
+            return reports == 0 ? 0 : bytes / reports;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        // Same as AsyncConfig.pdfPartitionPool
+        partitionPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        cityPdfWriter = new CityPdfWriter(partitionPool, partitionSize, new PdfResources());
+    }
+
+    @TearDown
+    public void tearDown() {
+        partitionPool.shutdown();
+    }
+
+    @Benchmark
+    public long render(Output output) {
+        CountingOutputStream out = new CountingOutputStream();
+        cityPdfWriter.write(cities(), out, renderedRows -> {
+        });
+
+        output.bytes += out.count;
+        output.reports++;
+        return out.count;
+    }
+
+    private Stream<CityRow> cities() {
+        return LongStream.rangeClosed(1, rows).mapToObj(id -> new CityRow("City " + id, (int) (id % 10_000_000)));
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
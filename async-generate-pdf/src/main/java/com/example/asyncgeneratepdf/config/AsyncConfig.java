@@ -1,18 +1,28 @@
 package com.example.asyncgeneratepdf.config;
 
+import com.example.asyncgeneratepdf.executor.AdmissionControlledExecutor;
+import com.example.asyncgeneratepdf.executor.VirtualThreadTaskExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.util.concurrent.Executor;
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
     @Bean
-    public Executor pdfGenerateExecutor() {
+    @ConditionalOnProperty(name = "pdf.executor.mode", havingValue = "platform", matchIfMissing = true)
+    public ThreadPoolTaskExecutor pdfThreadPool() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
         executor.setMaxPoolSize(10);
@@ -21,4 +31,67 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Runs the renders on Java 21 virtual threads, bounded by a semaphore instead of a pool size.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "pdf.executor.mode", havingValue = "virtual")
+    public VirtualThreadTaskExecutor pdfVirtualThreadExecutor(
+            @Value("${pdf.executor.virtual.max-concurrency}") int maxConcurrency) {
+        return new VirtualThreadTaskExecutor("pdf-virtual-", maxConcurrency);
+    }
+
+    /**
+     * Rejects renders early when they would wait in the queue for longer than {@code pdf.admission.max-wait}, the run
+     * time is assumed to be {@code pdf.admission.initial-run-time} until the first render has finished.
+     * <p>
+     * The pool only grows beyond its core size once the queue is full, so the core size is the parallelism.
+     */
+    @Bean
+    public AdmissionControlledExecutor pdfGenerateExecutor(@Qualifier("pdfThreadPool")
+                                                           ObjectProvider<ThreadPoolTaskExecutor> pdfThreadPool,
+                                                           ObjectProvider<VirtualThreadTaskExecutor> pdfVirtualThreadExecutor,
+                                                           @Value("${pdf.admission.max-wait}") Duration maxWait,
+                                                           @Value("${pdf.admission.initial-run-time}")
+                                                           Duration initialRunTime,
+                                                           MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor threadPool = pdfThreadPool.getIfAvailable();
+        if (threadPool != null) {
+            return new AdmissionControlledExecutor(threadPool, threadPool.getCorePoolSize(), maxWait, initialRunTime,
+                    meterRegistry);
+        }
+
+        VirtualThreadTaskExecutor virtualThreadExecutor = pdfVirtualThreadExecutor.getObject();
+        return new AdmissionControlledExecutor(virtualThreadExecutor, virtualThreadExecutor.getMaxConcurrency(),
+                maxWait, initialRunTime, meterRegistry);
+    }
+
+    /**
+     * Runs the async work of Spring MVC and writes the streaming exports of text formats and the entries of ZIP exports,
+     * PDFs are rendered on {@code pdfGenerateExecutor} so they go through its admission control.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mvcAsyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(20);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("mvc-async-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Renders the partitions of large reports, one thread per core since rendering is CPU bound.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool pdfPartitionPool() {
+        ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("pdf-part-" + thread.getPoolIndex());
+            return thread;
+        };
+        return new ForkJoinPool(Runtime.getRuntime().availableProcessors(), threadFactory, null, false);
+    }
 }
@@ -1,47 +1,174 @@
 package com.example.asyncgeneratepdf.controller;
 
-import com.example.asyncgeneratepdf.entity.City;
-import com.example.asyncgeneratepdf.repository.CityRepository;
+import com.example.asyncgeneratepdf.dto.CityImportResult;
+import com.example.asyncgeneratepdf.dto.CityReportSpec;
+import com.example.asyncgeneratepdf.export.CityExporter;
+import com.example.asyncgeneratepdf.export.CityExporterRegistry;
+import com.example.asyncgeneratepdf.output.ReportContent;
+import com.example.asyncgeneratepdf.output.ResponseBodyEmitterOutputStream;
+import com.example.asyncgeneratepdf.service.CityImportService;
+import com.example.asyncgeneratepdf.service.CityReportService;
+import com.example.asyncgeneratepdf.service.CityStreamService;
+import com.example.asyncgeneratepdf.service.CityZipExportService;
 import com.example.asyncgeneratepdf.service.PdfGeneratingService;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/cities")
 public class CityController {
 
-    private final CityRepository cityRepository;
+    private final CityStreamService cityStreamService;
 
     private final PdfGeneratingService pdfGeneratingService;
 
-    public CityController(CityRepository cityRepository, PdfGeneratingService pdfGeneratingService) {
-        this.cityRepository = cityRepository;
+    private final CityReportService cityReportService;
+
+    private final CityZipExportService cityZipExportService;
+
+    private final CityImportService cityImportService;
+
+    private final CityExporterRegistry cityExporterRegistry;
+
+    private final Executor pdfGenerateExecutor;
+
+    private final Executor mvcAsyncExecutor;
+
+    public CityController(CityStreamService cityStreamService, PdfGeneratingService pdfGeneratingService,
+                          CityReportService cityReportService, CityZipExportService cityZipExportService,
+                          CityImportService cityImportService, CityExporterRegistry cityExporterRegistry,
+                          @Qualifier("pdfGenerateExecutor") Executor pdfGenerateExecutor,
+                          @Qualifier("mvcAsyncExecutor") Executor mvcAsyncExecutor) {
+        this.cityStreamService = cityStreamService;
         this.pdfGeneratingService = pdfGeneratingService;
+        this.cityReportService = cityReportService;
+        this.cityZipExportService = cityZipExportService;
+        this.cityImportService = cityImportService;
+        this.cityExporterRegistry = cityExporterRegistry;
+        this.pdfGenerateExecutor = pdfGenerateExecutor;
+        this.mvcAsyncExecutor = mvcAsyncExecutor;
     }
 
     @GetMapping("/pdf")
-    public ResponseEntity<byte[]> generatePdf() {
-        List<City> cityList = cityRepository.findAll();
-        CompletableFuture<ByteArrayOutputStream> baos = pdfGeneratingService.generatePdf(cityList);
-        CompletableFuture.allOf(baos).join();
+    public CompletableFuture<ResponseEntity<ReportContent>> generatePdf(WebRequest webRequest) {
+        // The client already has the current report, answer 304 without touching the database
+        String currentETag = cityReportService.currentETag();
+        if (webRequest.checkNotModified(currentETag)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+        }
+
+        // The request thread is released, the response is written once the PDF is generated
+        return cityReportService.getReport().thenApply(report -> ResponseEntity.ok()
+                .headers(pdfHeaders())
+                .eTag(report.eTag())
+                .body(report.content()));
+    }
+
+    @GetMapping("/pdf/stream")
+    public ResponseEntity<ResponseBodyEmitter> streamPdf() {
+        ResponseBodyEmitter emitter = emit(pdfGenerateExecutor, out -> cityStreamService.readCities(
+                cities -> pdfGeneratingService.writePdf(cities, out)));
+
+        return new ResponseEntity<>(emitter, pdfHeaders(), HttpStatus.OK);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<ResponseBodyEmitter> export(
+            @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = MediaType.ALL_VALUE) String accept)
+            throws HttpMediaTypeNotAcceptableException {
+        // The format is picked from the Accept header, the rows are written as they come off the cursor
+        CityExporter exporter = cityExporterRegistry.select(MediaType.parseMediaTypes(accept));
+        // PDFs are rendered on the PDF executor, which rejects them when it is saturated
+        Executor executor = MediaType.APPLICATION_PDF.equals(exporter.getMediaType())
+                ? pdfGenerateExecutor : mvcAsyncExecutor;
+        ResponseBodyEmitter emitter = emit(executor, out -> cityStreamService.readCities(
+                cities -> exporter.export(cities, out)));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(exporter.getMediaType());
+        headers.setContentDispositionFormData("attachment", "cities." + exporter.getFileExtension());
+        return new ResponseEntity<>(emitter, headers, HttpStatus.OK);
+    }
+
+    @PostMapping("/pdf/zip")
+    public ResponseEntity<ResponseBodyEmitter> exportZip(@RequestBody List<CityReportSpec> specs) {
+        // The entries are sent by a writer on mvcAsyncExecutor as the renders finish, no thread waits for the whole ZIP
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        OutputStream out = new BufferedOutputStream(new ResponseBodyEmitterOutputStream(emitter), 64 * 1024);
+        cityZipExportService.export(specs, out).whenComplete((result, ex) -> {
+            if (ex != null) {
+                emitter.completeWithError(ex);
+            } else {
+                emitter.complete();
+            }
+        });
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDispositionFormData("attachment", "cities.zip");
+        return new ResponseEntity<>(emitter, headers, HttpStatus.OK);
+    }
+
+    @PostMapping(path = "/import", consumes = "text/csv")
+    public CityImportResult importCsv(InputStream body) {
+        // The body is parsed while it is read, it is never buffered as a whole
+        return cityImportService.importCsv(body);
+    }
+
+    @PostMapping(path = "/import", consumes = "application/x-ndjson")
+    public CityImportResult importNdjson(InputStream body) {
+        return cityImportService.importNdjson(body);
+    }
 
+    /**
+     * Write the response body on the given executor, a rejection is thrown before anything is written.
+     */
+    private ResponseBodyEmitter emit(Executor executor, Consumer<OutputStream> writer) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        OutputStream out = new BufferedOutputStream(new ResponseBodyEmitterOutputStream(emitter), 64 * 1024);
+        CompletableFuture.runAsync(() -> {
+            writer.accept(out);
+            try {
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor).whenComplete((result, ex) -> {
+            if (ex != null) {
+                emitter.completeWithError(ex);
+            } else {
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
+    private HttpHeaders pdfHeaders() {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.setContentDispositionFormData("attachment", "cities.pdf");
-
-        try {
-            return new ResponseEntity<>(baos.get().toByteArray(), headers, HttpStatus.OK);
-        } catch (Exception e) {
-            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+        return headers;
     }
 }
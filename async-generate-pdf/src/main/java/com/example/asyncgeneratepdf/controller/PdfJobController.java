@@ -0,0 +1,58 @@
+package com.example.asyncgeneratepdf.controller;
+
+import com.example.asyncgeneratepdf.dto.PdfJobDTO;
+import com.example.asyncgeneratepdf.exception.PdfJobNotReadyException;
+import com.example.asyncgeneratepdf.job.PdfJob;
+import com.example.asyncgeneratepdf.job.PdfJobService;
+import com.example.asyncgeneratepdf.job.PdfJobStatus;
+import com.example.asyncgeneratepdf.output.ReportContent;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+@RestController
+public class PdfJobController {
+
+    private final PdfJobService pdfJobService;
+
+    public PdfJobController(PdfJobService pdfJobService) {
+        this.pdfJobService = pdfJobService;
+    }
+
+    @PostMapping("/cities/pdf/jobs")
+    public ResponseEntity<PdfJobDTO> submitJob() {
+        PdfJob job = pdfJobService.submit();
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/jobs/{id}")
+                .buildAndExpand(job.getId())
+                .toUri();
+
+        return ResponseEntity.accepted().location(location).body(PdfJobDTO.from(job));
+    }
+
+    @GetMapping("/jobs/{id}")
+    public PdfJobDTO getJob(@PathVariable String id) {
+        return PdfJobDTO.from(pdfJobService.find(id));
+    }
+
+    @GetMapping("/jobs/{id}/content")
+    public ResponseEntity<ReportContent> getJobContent(@PathVariable String id) {
+        PdfJob job = pdfJobService.find(id);
+        if (job.getStatus() != PdfJobStatus.COMPLETED) {
+            throw new PdfJobNotReadyException(id, job.getStatus());
+        }
+        ReportContent content = pdfJobService.getResult(job);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", "cities.pdf");
+        return ResponseEntity.ok().headers(headers).body(content);
+    }
+}
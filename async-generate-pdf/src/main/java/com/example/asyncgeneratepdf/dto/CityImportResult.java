@@ -0,0 +1,14 @@
+package com.example.asyncgeneratepdf.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CityImportResult {
+    private long importedRows;
+    private int chunks;
+    private long durationMillis;
+}
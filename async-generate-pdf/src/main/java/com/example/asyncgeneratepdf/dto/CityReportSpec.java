@@ -0,0 +1,18 @@
+package com.example.asyncgeneratepdf.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One report of a ZIP export: the cities matching all the given filters, written as {@code <name>.pdf}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CityReportSpec {
+    private String name;
+    private String namePrefix;
+    private Integer minPopulation;
+    private Integer maxPopulation;
+}
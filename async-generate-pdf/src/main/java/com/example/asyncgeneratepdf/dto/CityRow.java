@@ -0,0 +1,7 @@
+package com.example.asyncgeneratepdf.dto;
+
+/**
+ * A row of a city report, read with a constructor expression instead of hydrating {@code City} entities.
+ */
+public record CityRow(String name, Integer population) {
+}
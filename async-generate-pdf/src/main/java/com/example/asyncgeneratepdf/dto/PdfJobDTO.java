@@ -0,0 +1,28 @@
+package com.example.asyncgeneratepdf.dto;
+
+import com.example.asyncgeneratepdf.job.PdfJob;
+import com.example.asyncgeneratepdf.job.PdfJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PdfJobDTO {
+    private String id;
+    private PdfJobStatus status;
+    private int progress;
+    private long renderedRows;
+    private long totalRows;
+    private Instant createdAt;
+    private Instant finishedAt;
+    private String error;
+
+    public static PdfJobDTO from(PdfJob job) {
+        return new PdfJobDTO(job.getId(), job.getStatus(), job.getProgress(), job.getRenderedRows(),
+                job.getTotalRows(), job.getCreatedAt(), job.getFinishedAt(), job.getError());
+    }
+}
@@ -8,6 +8,7 @@ import lombok.ToString;
 
 @Entity
 @Table(name = "t_city")
+@EntityListeners(CityChangeListener.class)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
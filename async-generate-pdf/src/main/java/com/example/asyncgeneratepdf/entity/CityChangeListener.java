@@ -0,0 +1,30 @@
+package com.example.asyncgeneratepdf.entity;
+
+import com.example.asyncgeneratepdf.service.CityTableVersion;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bumps the {@link CityTableVersion} whenever a city is inserted, updated or deleted.
+ * <p>
+ * Inside a transaction the version row is bumped in the same transaction, so the version only changes when the
+ * rows are committed, and a report rendered for the new version always sees the new rows.
+ */
+@Component
+public class CityChangeListener {
+
+    private final CityTableVersion cityTableVersion;
+
+    public CityChangeListener(CityTableVersion cityTableVersion) {
+        this.cityTableVersion = cityTableVersion;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void cityChanged(City city) {
+        cityTableVersion.increment();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.asyncgeneratepdf.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The single row holding the version of the {@code t_city} table, shared by all instances.
+ */
+@Entity
+@Table(name = "t_city_version")
+@Data
+@NoArgsConstructor
+public class CityVersion {
+
+    @Id
+    private Integer id;
+    private Long version;
+}
@@ -0,0 +1,17 @@
+package com.example.asyncgeneratepdf.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class ApiError {
+    private HttpStatus status;
+    private Integer code;
+    private String message;
+
+    public ApiError(HttpStatus status, String message) {
+        this.status = status;
+        this.code = status.value();
+        this.message = message;
+    }
+}
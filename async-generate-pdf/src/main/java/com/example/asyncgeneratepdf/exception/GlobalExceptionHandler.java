@@ -0,0 +1,52 @@
+package com.example.asyncgeneratepdf.exception;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+@ControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(PdfJobNotFoundException.class)
+    public ResponseEntity<ApiError> handlePdfJobNotFound(PdfJobNotFoundException ex) {
+        return toResponse(new ApiError(HttpStatus.NOT_FOUND, ex.getMessage()));
+    }
+
+    @ExceptionHandler(PdfJobNotReadyException.class)
+    public ResponseEntity<ApiError> handlePdfJobNotReady(PdfJobNotReadyException ex) {
+        return toResponse(new ApiError(HttpStatus.CONFLICT, ex.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidReportSpecException.class)
+    public ResponseEntity<ApiError> handleInvalidReportSpec(InvalidReportSpecException ex) {
+        return toResponse(new ApiError(HttpStatus.BAD_REQUEST, ex.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidCityImportException.class)
+    public ResponseEntity<ApiError> handleInvalidCityImport(InvalidCityImportException ex) {
+        return toResponse(new ApiError(HttpStatus.BAD_REQUEST, ex.getMessage()));
+    }
+
+    @ExceptionHandler(PdfRenderRejectedException.class)
+    public ResponseEntity<ApiError> handlePdfRenderRejected(PdfRenderRejectedException ex) {
+        // Ask the client to come back once the current backlog is likely to be rendered
+        long retryAfterSeconds = Math.max(1, ex.getEstimatedWait().toSeconds());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+
+        ApiError apiError = new ApiError(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        return new ResponseEntity<>(apiError, headers, apiError.getStatus());
+    }
+
+    @ExceptionHandler({PdfJobLimitExceededException.class, TaskRejectedException.class})
+    public ResponseEntity<ApiError> handleRejected(RuntimeException ex) {
+        return toResponse(new ApiError(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage()));
+    }
+
+    private ResponseEntity<ApiError> toResponse(ApiError apiError) {
+        return new ResponseEntity<>(apiError, new HttpHeaders(), apiError.getStatus());
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.asyncgeneratepdf.exception;
+
+public class InvalidCityImportException extends RuntimeException {
+    public InvalidCityImportException(String message) {
+        super(message);
+    }
+}
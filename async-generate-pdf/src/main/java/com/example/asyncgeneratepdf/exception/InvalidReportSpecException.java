@@ -0,0 +1,7 @@
+package com.example.asyncgeneratepdf.exception;
+
+public class InvalidReportSpecException extends RuntimeException {
+    public InvalidReportSpecException(String message) {
+        super(message);
+    }
+}
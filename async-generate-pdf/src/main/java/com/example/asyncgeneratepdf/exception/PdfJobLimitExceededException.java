@@ -0,0 +1,7 @@
+package com.example.asyncgeneratepdf.exception;
+
+public class PdfJobLimitExceededException extends RuntimeException {
+    public PdfJobLimitExceededException(int maxJobs) {
+        super("Too many PDF jobs: max=" + maxJobs);
+    }
+}
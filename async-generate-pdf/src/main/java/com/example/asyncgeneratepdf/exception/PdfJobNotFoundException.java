@@ -0,0 +1,7 @@
+package com.example.asyncgeneratepdf.exception;
+
+public class PdfJobNotFoundException extends RuntimeException {
+    public PdfJobNotFoundException(String id) {
+        super("Could not find PDF job: id=" + id);
+    }
+}
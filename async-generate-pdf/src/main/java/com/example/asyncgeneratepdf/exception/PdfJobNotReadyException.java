@@ -0,0 +1,9 @@
+package com.example.asyncgeneratepdf.exception;
+
+import com.example.asyncgeneratepdf.job.PdfJobStatus;
+
+public class PdfJobNotReadyException extends RuntimeException {
+    public PdfJobNotReadyException(String id, PdfJobStatus status) {
+        super("PDF job has no content: id=" + id + ", status=" + status);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.asyncgeneratepdf.exception;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+public class PdfRenderRejectedException extends RejectedExecutionException {
+
+    private final Duration estimatedWait;
+
+    public PdfRenderRejectedException(Duration estimatedWait) {
+        super("PDF rendering is overloaded: estimatedWait=" + estimatedWait.toSeconds() + "s");
+        this.estimatedWait = estimatedWait;
+    }
+
+    public Duration getEstimatedWait() {
+        return estimatedWait;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.asyncgeneratepdf.executor;
+
+import com.example.asyncgeneratepdf.exception.PdfRenderRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Rejects tasks up front when their estimated queue wait exceeds the maximum wait, instead of letting them queue.
+ * <p>
+ * The wait is estimated from the number of queued tasks and the moving average of the task run time. Until the first
+ * task has finished, the average is the configured initial run time, so a burst right after startup is limited as
+ * well. The queued and running tasks and the actual queue wait are published as {@code pdf.executor.*} meters.
+ */
+public class AdmissionControlledExecutor implements AsyncTaskExecutor {
+
+    // Weight of the latest run time in the moving average
+    private static final double ALPHA = 0.2;
+
+    private final AsyncTaskExecutor delegate;
+
+    private final int parallelism;
+
+    private final Duration maxWait;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final Counter admitted;
+
+    private final Counter rejected;
+
+    private final Timer queueWait;
+
+    private volatile double averageRunNanos;
+
+    // False while the average is still the initial run time
+    private boolean measured;
+
+    public AdmissionControlledExecutor(AsyncTaskExecutor delegate, int parallelism, Duration maxWait,
+                                       Duration initialRunTime, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.parallelism = parallelism;
+        this.maxWait = maxWait;
+        this.averageRunNanos = initialRunTime.toNanos();
+        this.admitted = Counter.builder("pdf.admission.admitted")
+                .description("Tasks admitted to the PDF executor")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("pdf.admission.rejected")
+                .description("Tasks rejected because the estimated wait exceeded the maximum wait")
+                .register(meterRegistry);
+        Gauge.builder("pdf.admission.estimated.wait", this, executor -> executor.estimateWait().toMillis())
+                .description("Estimated queue wait of a new task")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("pdf.executor.queue.wait")
+                .description("Time tasks waited in the queue of the PDF executor before they started")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("pdf.executor.queued", queued, AtomicInteger::get)
+                .description("Tasks waiting in the queue of the PDF executor")
+                .register(meterRegistry);
+        Gauge.builder("pdf.executor.active", running, AtomicInteger::get)
+                .description("Tasks running on the PDF executor")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        admit(() -> {
+            delegate.execute(tracked(task));
+            return null;
+        });
+    }
+
+    @Override
+    @Deprecated
+    public void execute(Runnable task, long startTimeout) {
+        execute(task);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return admit(() -> delegate.submit(tracked(task)));
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return admit(() -> {
+            long submitted = System.nanoTime();
+            return delegate.submit(() -> {
+                long start = beforeRun(submitted);
+                try {
+                    return task.call();
+                } finally {
+                    afterRun(start);
+                }
+            });
+        });
+    }
+
+    /**
+     * Estimated time a task submitted now waits in the queue before it starts.
+     */
+    public Duration estimateWait() {
+        int ahead = queued.get() + running.get();
+        if (ahead < parallelism) {
+            return Duration.ZERO;
+        }
+        long rounds = (ahead - parallelism) / parallelism + 1;
+        return Duration.ofNanos((long) (rounds * averageRunNanos));
+    }
+
+    private <T> T admit(Supplier<T> submission) {
+        Duration estimatedWait = estimateWait();
+        if (estimatedWait.compareTo(maxWait) > 0) {
+            rejected.increment();
+            throw new PdfRenderRejectedException(estimatedWait);
+        }
+
+        queued.incrementAndGet();
+        try {
+            T result = submission.get();
+            admitted.increment();
+            return result;
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private Runnable tracked(Runnable task) {
+        long submitted = System.nanoTime();
+        return () -> {
+            long start = beforeRun(submitted);
+            try {
+                task.run();
+            } finally {
+                afterRun(start);
+            }
+        };
+    }
+
+    private long beforeRun(long submitted) {
+        queued.decrementAndGet();
+        running.incrementAndGet();
+        long start = System.nanoTime();
+        queueWait.record(start - submitted, TimeUnit.NANOSECONDS);
+        return start;
+    }
+
+    private void afterRun(long start) {
+        running.decrementAndGet();
+        recordRunTime(System.nanoTime() - start);
+    }
+
+    private synchronized void recordRunTime(long nanos) {
+        // The first measured run time replaces the initial guess instead of being averaged with it
+        averageRunNanos = measured ? ALPHA * nanos + (1 - ALPHA) * averageRunNanos : nanos;
+        measured = true;
+    }
+}
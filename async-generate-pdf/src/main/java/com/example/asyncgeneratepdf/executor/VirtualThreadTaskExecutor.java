@@ -0,0 +1,81 @@
+package com.example.asyncgeneratepdf.executor;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs every task on a new virtual thread, at most {@code maxConcurrency} tasks run at the same time.
+ * <p>
+ * Tasks beyond the limit wait for a permit on their own virtual thread, so a task blocked on the database or on
+ * storage does not hold on to a platform thread. Virtual threads need Java 21, the project is still compiled for
+ * Java 17, so the thread factory is looked up reflectively when the executor is created.
+ */
+public class VirtualThreadTaskExecutor implements AsyncTaskExecutor {
+
+    private final ThreadFactory threadFactory;
+
+    private final Semaphore permits;
+
+    private final int maxConcurrency;
+
+    public VirtualThreadTaskExecutor(String threadNamePrefix, int maxConcurrency) {
+        this.threadFactory = virtualThreadFactory(threadNamePrefix);
+        this.permits = new Semaphore(maxConcurrency);
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        threadFactory.newThread(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        }).start();
+    }
+
+    @Override
+    @Deprecated
+    public void execute(Runnable task, long startTimeout) {
+        execute(task);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        FutureTask<Object> future = new FutureTask<>(task, null);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(future);
+        return future;
+    }
+
+    private static ThreadFactory virtualThreadFactory(String threadNamePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> ofVirtual = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = ofVirtual.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 0L);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads need Java 21, running on Java "
+                    + Runtime.version().feature(), e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.asyncgeneratepdf.export;
+
+import com.example.asyncgeneratepdf.dto.CityRow;
+import org.springframework.http.MediaType;
+
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Writes the cities in one output format, picked by {@link CityExporterRegistry} from the {@code Accept} header.
+ * <p>
+ * Exporters write the rows as they come off the database cursor and never hold the whole report in memory. The
+ * stream is flushed but not closed, so it can be the servlet output stream of a streaming response.
+ */
+public interface CityExporter {
+
+    MediaType getMediaType();
+
+    String getFileExtension();
+
+    void export(Stream<CityRow> cities, OutputStream out);
+}
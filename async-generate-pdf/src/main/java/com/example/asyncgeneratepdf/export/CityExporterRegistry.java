@@ -0,0 +1,46 @@
+package com.example.asyncgeneratepdf.export;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Picks the {@link CityExporter} for the media types accepted by the client.
+ * <p>
+ * The accepted types are tried by decreasing quality, then the more specific first, a wildcard picks the first exporter
+ * in {@code @Order}.
+ */
+@Component
+public class CityExporterRegistry {
+
+    private final List<CityExporter> exporters;
+
+    public CityExporterRegistry(List<CityExporter> exporters) {
+        this.exporters = exporters;
+    }
+
+    public CityExporter select(List<MediaType> acceptedTypes) throws HttpMediaTypeNotAcceptableException {
+        List<MediaType> preferred = acceptedTypes.stream()
+                .filter(type -> type.getQualityValue() > 0)
+                .collect(Collectors.toCollection(ArrayList::new));
+        // By quality, and the more specific type first at equal quality, so "*/*, text/csv" picks CSV
+        MimeTypeUtils.sortBySpecificity(preferred);
+        for (MediaType acceptedType : preferred) {
+            for (CityExporter exporter : exporters) {
+                if (acceptedType.includes(exporter.getMediaType())) {
+                    return exporter;
+                }
+            }
+        }
+        throw new HttpMediaTypeNotAcceptableException(getMediaTypes());
+    }
+
+    public List<MediaType> getMediaTypes() {
+        return exporters.stream().map(CityExporter::getMediaType).toList();
+    }
+}
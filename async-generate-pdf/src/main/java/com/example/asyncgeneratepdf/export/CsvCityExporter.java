@@ -0,0 +1,70 @@
+package com.example.asyncgeneratepdf.export;
+
+import com.example.asyncgeneratepdf.dto.CityRow;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * {@code name,population} lines with a header, in the format read back by the bulk import.
+ */
+@Component
+@Order(2)
+public class CsvCityExporter implements CityExporter {
+
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    @Override
+    public MediaType getMediaType() {
+        return TEXT_CSV;
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "csv";
+    }
+
+    @Override
+    public void export(Stream<CityRow> cities, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        try {
+            writer.write("name,population\n");
+            Iterator<CityRow> iterator = cities.iterator();
+            while (iterator.hasNext()) {
+                CityRow city = iterator.next();
+                writeName(writer, city.name());
+                writer.write(',');
+                if (city.population() != null) {
+                    writer.write(Integer.toString(city.population()));
+                }
+                writer.write('\n');
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeName(Writer writer, String name) throws IOException {
+        if (name == null) {
+            return;
+        }
+        if (name.indexOf(',') < 0 && name.indexOf('"') < 0 && name.indexOf('\n') < 0 && name.indexOf('\r') < 0) {
+            writer.write(name);
+            return;
+        }
+        writer.write('"');
+        writer.write(name.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.asyncgeneratepdf.export;
+
+import com.example.asyncgeneratepdf.dto.CityRow;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * One {@code {"name": ..., "population": ...}} object per line, written with the streaming Jackson generator.
+ */
+@Component
+@Order(3)
+public class NdjsonCityExporter implements CityExporter {
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final JsonFactory jsonFactory;
+
+    public NdjsonCityExporter(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    @Override
+    public MediaType getMediaType() {
+        return APPLICATION_NDJSON;
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "ndjson";
+    }
+
+    @Override
+    public void export(Stream<CityRow> cities, OutputStream out) {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null)) {
+            Iterator<CityRow> iterator = cities.iterator();
+            while (iterator.hasNext()) {
+                CityRow city = iterator.next();
+                generator.writeStartObject();
+                generator.writeStringField("name", city.name());
+                if (city.population() != null) {
+                    generator.writeNumberField("population", city.population());
+                } else {
+                    generator.writeNullField("population");
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.asyncgeneratepdf.export;
+
+import com.example.asyncgeneratepdf.dto.CityRow;
+import com.example.asyncgeneratepdf.service.CityPdfWriter;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+/**
+ * The PDF report of {@link CityPdfWriter}, the default when the client accepts any format.
+ */
+@Component
+@Order(1)
+public class PdfCityExporter implements CityExporter {
+
+    private final CityPdfWriter cityPdfWriter;
+
+    public PdfCityExporter(CityPdfWriter cityPdfWriter) {
+        this.cityPdfWriter = cityPdfWriter;
+    }
+
+    @Override
+    public MediaType getMediaType() {
+        return MediaType.APPLICATION_PDF;
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "pdf";
+    }
+
+    @Override
+    public void export(Stream<CityRow> cities, OutputStream out) {
+        cityPdfWriter.write(cities, out, renderedRows -> {
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.asyncgeneratepdf.job;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A PDF rendering job in the durable job queue, shared by all instances of the application.
+ * <p>
+ * A running job is owned by the worker that claimed it, the worker keeps its heartbeat and progress up to date.
+ */
+@Entity
+@Table(name = "t_pdf_job", indexes = @Index(columnList = "status, createdAt"))
+@Getter
+@NoArgsConstructor
+public class PdfJob {
+
+    public static final int MAX_ERROR_LENGTH = 1000;
+
+    @Id
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    private PdfJobStatus status;
+
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+
+    // Worker that claimed the job and the last time it reported the job alive
+    private String owner;
+    private Instant heartbeatAt;
+    private int attempts;
+
+    private long totalRows;
+    private long renderedRows;
+    private long resultSize;
+
+    @Column(length = MAX_ERROR_LENGTH)
+    private String error;
+
+    public PdfJob(String id, Instant createdAt) {
+        this.id = id;
+        this.createdAt = createdAt;
+        this.status = PdfJobStatus.QUEUED;
+    }
+
+    public int getProgress() {
+        if (status == PdfJobStatus.COMPLETED) {
+            return 100;
+        }
+        return totalRows == 0 ? 0 : (int) (renderedRows * 100 / totalRows);
+    }
+
+    void claim(String owner, Instant now) {
+        this.status = PdfJobStatus.RUNNING;
+        this.owner = owner;
+        this.startedAt = now;
+        this.heartbeatAt = now;
+        this.renderedRows = 0;
+        this.attempts++;
+    }
+}
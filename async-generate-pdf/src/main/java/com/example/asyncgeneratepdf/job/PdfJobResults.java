@@ -0,0 +1,41 @@
+package com.example.asyncgeneratepdf.job;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The rendered PDFs of the jobs, one file per job in a directory shared by all instances of the application.
+ */
+@Component
+public class PdfJobResults {
+
+    private final Path directory;
+
+    public PdfJobResults(@Value("${pdf.jobs.result-directory}") Path directory) {
+        this.directory = directory;
+    }
+
+    public Path path(String jobId) {
+        return directory.resolve(jobId + ".pdf");
+    }
+
+    /**
+     * A temporary file to render the job into, published with {@link #publish} once complete.
+     */
+    Path createTempFile(String jobId) throws IOException {
+        Files.createDirectories(directory);
+        return Files.createTempFile(directory, jobId + "-", ".tmp");
+    }
+
+    /**
+     * Move the rendered file in place atomically, so a download never sees a partial PDF.
+     */
+    Path publish(String jobId, Path tempFile) throws IOException {
+        return Files.move(tempFile, path(jobId), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.asyncgeneratepdf.job;
+
+import com.example.asyncgeneratepdf.exception.PdfJobLimitExceededException;
+import com.example.asyncgeneratepdf.exception.PdfJobNotFoundException;
+import com.example.asyncgeneratepdf.output.FileReportContent;
+import com.example.asyncgeneratepdf.output.ReportContent;
+import com.example.asyncgeneratepdf.repository.PdfJobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Submits PDF rendering jobs to the durable job queue, where a {@link PdfJobWorker} of any instance picks them up.
+ * <p>
+ * The number of queued and running jobs is bounded. Finished jobs and their results are evicted once their time to
+ * live has passed.
+ */
+@Service
+@Slf4j
+public class PdfJobService {
+
+    private final PdfJobRepository pdfJobRepository;
+
+    private final PdfJobResults pdfJobResults;
+
+    private final PdfJobWorker pdfJobWorker;
+
+    private final int maxJobs;
+
+    private final Duration ttl;
+
+    private final Clock clock = Clock.systemUTC();
+
+    public PdfJobService(PdfJobRepository pdfJobRepository,
+                         PdfJobResults pdfJobResults,
+                         PdfJobWorker pdfJobWorker,
+                         @Value("${pdf.jobs.max-jobs}") int maxJobs,
+                         @Value("${pdf.jobs.ttl}") Duration ttl) {
+        this.pdfJobRepository = pdfJobRepository;
+        this.pdfJobResults = pdfJobResults;
+        this.pdfJobWorker = pdfJobWorker;
+        this.maxJobs = maxJobs;
+        this.ttl = ttl;
+    }
+
+    public PdfJob submit() {
+        if (pdfJobRepository.countByStatusIn(EnumSet.of(PdfJobStatus.QUEUED, PdfJobStatus.RUNNING)) >= maxJobs) {
+            throw new PdfJobLimitExceededException(maxJobs);
+        }
+
+        PdfJob job = pdfJobRepository.save(new PdfJob(UUID.randomUUID().toString(), clock.instant()));
+        // Start it right away when this instance has capacity, instead of waiting for the next poll
+        pdfJobWorker.poll();
+        return job;
+    }
+
+    public PdfJob find(String id) {
+        return pdfJobRepository.findById(id).orElseThrow(() -> new PdfJobNotFoundException(id));
+    }
+
+    /**
+     * The rendered PDF of a completed job, served from the shared result directory.
+     */
+    public ReportContent getResult(PdfJob job) {
+        Path path = pdfJobResults.path(job.getId());
+        if (!Files.isRegularFile(path)) {
+            throw new PdfJobNotFoundException(job.getId());
+        }
+        return new FileReportContent(path, job.getResultSize());
+    }
+
+    @Scheduled(fixedDelayString = "${pdf.jobs.eviction-interval}")
+    public void evictExpired() {
+        Instant expiredBefore = clock.instant().minus(ttl);
+        List<PdfJob> expired = pdfJobRepository.findByStatusInAndFinishedAtBefore(
+                EnumSet.of(PdfJobStatus.COMPLETED, PdfJobStatus.FAILED), expiredBefore);
+        for (PdfJob job : expired) {
+            try {
+                Files.deleteIfExists(pdfJobResults.path(job.getId()));
+            } catch (IOException e) {
+                log.warn("Could not delete the result of PDF job {}", job.getId(), e);
+            }
+        }
+        pdfJobRepository.deleteAll(expired);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.asyncgeneratepdf.job;
+
+public enum PdfJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.asyncgeneratepdf.job;
+
+import com.example.asyncgeneratepdf.repository.CityRepository;
+import com.example.asyncgeneratepdf.repository.PdfJobRepository;
+import com.example.asyncgeneratepdf.service.CityStreamService;
+import com.example.asyncgeneratepdf.service.PdfGeneratingService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Claims queued PDF jobs from the database and renders them on {@code pdfGenerateExecutor}.
+ * <p>
+ * Every instance of the application runs a worker. A worker only claims as many jobs as it can run right away, so
+ * no job waits in an in-memory queue where a restart would lose it. Running jobs send heartbeats, and the jobs of a
+ * worker that stopped sending them are put back in the queue for another worker.
+ */
+@Component
+@Slf4j
+public class PdfJobWorker {
+
+    private final String workerId = UUID.randomUUID().toString();
+
+    private final Map<String, RunningJob> runningJobs = new ConcurrentHashMap<>();
+
+    private final PdfJobRepository pdfJobRepository;
+
+    private final PdfJobResults pdfJobResults;
+
+    private final CityRepository cityRepository;
+
+    private final CityStreamService cityStreamService;
+
+    private final PdfGeneratingService pdfGeneratingService;
+
+    private final Executor pdfGenerateExecutor;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Semaphore capacity;
+
+    private final Duration heartbeatTimeout;
+
+    private final int maxAttempts;
+
+    private final Clock clock = Clock.systemUTC();
+
+    public PdfJobWorker(PdfJobRepository pdfJobRepository,
+                        PdfJobResults pdfJobResults,
+                        CityRepository cityRepository,
+                        CityStreamService cityStreamService,
+                        PdfGeneratingService pdfGeneratingService,
+                        @Qualifier("pdfGenerateExecutor") Executor pdfGenerateExecutor,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${pdf.jobs.worker-concurrency}") int workerConcurrency,
+                        @Value("${pdf.jobs.heartbeat-timeout}") Duration heartbeatTimeout,
+                        @Value("${pdf.jobs.max-attempts}") int maxAttempts) {
+        this.pdfJobRepository = pdfJobRepository;
+        this.pdfJobResults = pdfJobResults;
+        this.cityRepository = cityRepository;
+        this.cityStreamService = cityStreamService;
+        this.pdfGeneratingService = pdfGeneratingService;
+        this.pdfGenerateExecutor = pdfGenerateExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.capacity = new Semaphore(workerConcurrency);
+        this.heartbeatTimeout = heartbeatTimeout;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Claim as many queued jobs as there is free capacity and start them.
+     */
+    @Scheduled(fixedDelayString = "${pdf.jobs.poll-interval}")
+    public void poll() {
+        int permits = capacity.drainPermits();
+        if (permits == 0) {
+            return;
+        }
+
+        List<PdfJob> claimed;
+        try {
+            claimed = transactionTemplate.execute(status -> {
+                List<PdfJob> jobs = pdfJobRepository.lockOldest(PdfJobStatus.QUEUED, PageRequest.of(0, permits));
+                Instant now = clock.instant();
+                jobs.forEach(job -> job.claim(workerId, now));
+                return jobs;
+            });
+        } catch (RuntimeException e) {
+            capacity.release(permits);
+            throw e;
+        }
+        capacity.release(permits - claimed.size());
+
+        for (PdfJob job : claimed) {
+            start(job.getId());
+        }
+    }
+
+    /**
+     * Report the running jobs alive along with their progress, and notice the ones taken over by another worker.
+     */
+    @Scheduled(fixedDelayString = "${pdf.jobs.heartbeat-interval}")
+    public void heartbeat() {
+        Instant now = clock.instant();
+        runningJobs.forEach((id, job) -> {
+            if (pdfJobRepository.heartbeat(id, workerId, now, job.totalRows, job.renderedRows) == 0) {
+                log.warn("PDF job {} is no longer owned by worker {}, cancelling it", id, workerId);
+                job.lost = true;
+            }
+        });
+    }
+
+    /**
+     * Put the jobs of workers that stopped sending heartbeats back in the queue, any worker may do it.
+     */
+    @Scheduled(fixedDelayString = "${pdf.jobs.heartbeat-interval}")
+    public void requeueStale() {
+        Instant now = clock.instant();
+        Instant staleBefore = now.minus(heartbeatTimeout);
+        int failed = pdfJobRepository.failStale(staleBefore, maxAttempts, now);
+        int requeued = pdfJobRepository.requeueStale(staleBefore, maxAttempts);
+        if (failed > 0 || requeued > 0) {
+            log.warn("Requeued {} and failed {} PDF jobs of lost workers", requeued, failed);
+        }
+    }
+
+    /**
+     * Hand the running jobs back to the queue on shutdown, so another worker picks them up without waiting for the
+     * heartbeat timeout.
+     */
+    @PreDestroy
+    public void shutdown() {
+        runningJobs.forEach((id, job) -> {
+            job.lost = true;
+            pdfJobRepository.requeue(id, workerId);
+        });
+    }
+
+    private void start(String id) {
+        RunningJob job = new RunningJob();
+        runningJobs.put(id, job);
+        try {
+            pdfGenerateExecutor.execute(() -> run(id, job));
+        } catch (RejectedExecutionException e) {
+            log.warn("PDF job {} rejected by the executor, requeueing it", id);
+            runningJobs.remove(id);
+            capacity.release();
+            pdfJobRepository.requeue(id, workerId);
+        }
+    }
+
+    private void run(String id, RunningJob job) {
+        log.info("Running PDF job {} on worker {}", id, workerId);
+        Path tempFile = null;
+        try {
+            job.totalRows = cityRepository.count();
+            tempFile = pdfJobResults.createTempFile(id);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile), 64 * 1024)) {
+                cityStreamService.readCities(cities -> pdfGeneratingService.writePdf(cities, out, renderedRows -> {
+                    if (job.lost) {
+                        throw new CancellationException("PDF job " + id + " was taken over by another worker");
+                    }
+                    job.renderedRows = renderedRows;
+                }));
+            }
+
+            long size = Files.size(tempFile);
+            pdfJobResults.publish(id, tempFile);
+            if (pdfJobRepository.complete(id, workerId, clock.instant(), size) == 0) {
+                log.warn("PDF job {} was taken over by another worker, dropping its result", id);
+            } else {
+                log.info("PDF job {} completed, {} bytes", id, size);
+            }
+        } catch (CancellationException e) {
+            log.warn(e.getMessage());
+            deleteQuietly(tempFile);
+        } catch (IOException | RuntimeException e) {
+            log.error("PDF job {} failed", id, e);
+            deleteQuietly(tempFile);
+            pdfJobRepository.fail(id, workerId, clock.instant(), describe(e));
+        } finally {
+            runningJobs.remove(id);
+            capacity.release();
+        }
+    }
+
+    /**
+     * The error of a failed job: the message, or the exception class without one, cut to the column length.
+     */
+    static String describe(Exception e) {
+        String error = e.getMessage() == null || e.getMessage().isBlank() ? e.getClass().getName() : e.getMessage();
+        return error.length() > PdfJob.MAX_ERROR_LENGTH ? error.substring(0, PdfJob.MAX_ERROR_LENGTH) : error;
+    }
+
+    private void deleteQuietly(Path tempFile) {
+        if (tempFile != null) {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                log.warn("Could not delete {}", tempFile, e);
+            }
+        }
+    }
+
+    private static class RunningJob {
+        private volatile long totalRows;
+        private volatile long renderedRows;
+        private volatile boolean lost;
+    }
+}
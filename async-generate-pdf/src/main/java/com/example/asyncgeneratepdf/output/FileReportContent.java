@@ -0,0 +1,65 @@
+package com.example.asyncgeneratepdf.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A report in a file, either spilled to a temporary file of the {@link ReportSpillStore} or kept elsewhere.
+ */
+public class FileReportContent extends ReportContent {
+
+    private final Path path;
+
+    private final long size;
+
+    private final ReportSpillStore spillStore;
+
+    /**
+     * A file that outlives the content, releasing the content leaves the file in place.
+     */
+    public FileReportContent(Path path, long size) {
+        this(path, size, null);
+    }
+
+    FileReportContent(Path path, long size, ReportSpillStore spillStore) {
+        this.path = path;
+        this.size = size;
+        this.spillStore = spillStore;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Copy the file with {@link FileChannel#transferTo}, which uses sendfile when the target is a socket and
+     * otherwise copies through a small buffer, the file is never read onto the heap as a whole.
+     */
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+        }
+    }
+
+    @Override
+    protected void dispose() {
+        if (spillStore != null) {
+            spillStore.released(path);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.asyncgeneratepdf.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class InMemoryReportContent extends ReportContent {
+
+    private final byte[] bytes;
+
+    public InMemoryReportContent(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public long size() {
+        return bytes.length;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.asyncgeneratepdf.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A rendered report, either in memory or spilled to a temporary file.
+ * <p>
+ * The content is reference counted: every response that writes it holds one reference and releases it once
+ * written, the temporary file of a spilled report is deleted after the last reference is released.
+ */
+public abstract class ReportContent {
+
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    public abstract long size();
+
+    public abstract void writeTo(OutputStream out) throws IOException;
+
+    /**
+     * Take one more reference, false when the content has already been released.
+     */
+    public boolean retain() {
+        int count;
+        do {
+            count = references.get();
+            if (count == 0) {
+                return false;
+            }
+        } while (!references.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    public void retain(int count) {
+        references.addAndGet(count);
+    }
+
+    public void release() {
+        if (references.decrementAndGet() == 0) {
+            dispose();
+        }
+    }
+
+    protected void dispose() {
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.asyncgeneratepdf.output;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link ReportContent} response body and releases the reference the response was holding.
+ * <p>
+ * A spilled report is handed to Tomcat's sendfile support when the connector offers it, so the file goes from
+ * the page cache to the socket without passing through the JVM. Otherwise, as for the responses of async
+ * requests, it is copied with {@link java.nio.channels.FileChannel#transferTo}.
+ */
+public class ReportContentHttpMessageConverter extends AbstractHttpMessageConverter<ReportContent> {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    public ReportContentHttpMessageConverter() {
+        super(MediaType.ALL);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ReportContent.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ReportContent readInternal(Class<? extends ReportContent> clazz, HttpInputMessage inputMessage) {
+        throw new UnsupportedOperationException("Reports are not accepted as request bodies");
+    }
+
+    @Override
+    protected Long getContentLength(ReportContent content, MediaType contentType) {
+        return content.size();
+    }
+
+    @Override
+    protected void writeInternal(ReportContent content, HttpOutputMessage outputMessage) throws IOException {
+        try {
+            if (content instanceof FileReportContent file && sendfile(file)) {
+                return;
+            }
+            content.writeTo(outputMessage.getBody());
+        } finally {
+            content.release();
+        }
+    }
+
+    private boolean sendfile(FileReportContent file) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return false;
+        }
+
+        // Tomcat only picks up sendfile at the end of the initial dispatch, not of an async dispatch
+        HttpServletRequest request = servletAttributes.getRequest();
+        if (request.getDispatcherType() != DispatcherType.REQUEST
+                || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            return false;
+        }
+        request.setAttribute(SENDFILE_FILENAME, file.getPath().toAbsolutePath().toString());
+        request.setAttribute(SENDFILE_START, 0L);
+        request.setAttribute(SENDFILE_END, file.size());
+        return true;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.asyncgeneratepdf.output;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Owns the temporary files of spilled reports and reaps them.
+ * <p>
+ * A released file is deleted once the release delay has passed, which leaves time for a sendfile transfer that
+ * the servlet container completes after the response was handed over. Files of this run are tracked until they are
+ * deleted, a file still referenced by a content is never reaped however old it is. Only untracked files older than
+ * the maximum age are deleted, the ones left behind by a previous run.
+ */
+@Component
+@Slf4j
+public class ReportSpillStore {
+
+    private final Path directory;
+
+    private final long threshold;
+
+    private final Duration releaseDelay;
+
+    private final Duration maxAge;
+
+    private final Set<Path> liveFiles = ConcurrentHashMap.newKeySet();
+
+    private final Map<Path, Instant> releasedFiles = new ConcurrentHashMap<>();
+
+    private final Clock clock = Clock.systemUTC();
+
+    public ReportSpillStore(@Value("${pdf.spill.directory}") Path directory,
+                            @Value("${pdf.spill.threshold}") DataSize threshold,
+                            @Value("${pdf.spill.release-delay}") Duration releaseDelay,
+                            @Value("${pdf.spill.max-age}") Duration maxAge) {
+        this.directory = directory;
+        this.threshold = threshold.toBytes();
+        this.releaseDelay = releaseDelay;
+        this.maxAge = maxAge;
+    }
+
+    public SpillingOutputStream newOutputStream() {
+        return new SpillingOutputStream(this, threshold);
+    }
+
+    @Scheduled(fixedDelayString = "${pdf.spill.reaper-interval}")
+    public void reap() {
+        Instant now = clock.instant();
+        releasedFiles.forEach((path, releasedAt) -> {
+            if (releasedAt.plus(releaseDelay).isBefore(now)) {
+                delete(path);
+                releasedFiles.remove(path);
+            }
+        });
+
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        Instant expiredBefore = now.minus(maxAge);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> !liveFiles.contains(path) && !releasedFiles.containsKey(path))
+                    .filter(path -> isOlderThan(path, expiredBefore))
+                    .forEach(this::delete);
+        } catch (IOException e) {
+            log.warn("Could not list spill directory {}", directory, e);
+        }
+    }
+
+    Path createFile() throws IOException {
+        Files.createDirectories(directory);
+        Path path = Files.createTempFile(directory, "report-", ".tmp");
+        liveFiles.add(path);
+        return path;
+    }
+
+    FileReportContent register(Path path, long size) {
+        return new FileReportContent(path, size, this);
+    }
+
+    void released(Path path) {
+        releasedFiles.put(path, clock.instant());
+        liveFiles.remove(path);
+    }
+
+    void discard(Path path) throws IOException {
+        try {
+            Files.deleteIfExists(path);
+        } finally {
+            liveFiles.remove(path);
+        }
+    }
+
+    private boolean isOlderThan(Path path, Instant instant) {
+        try {
+            return Files.getLastModifiedTime(path).toInstant().isBefore(instant);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete spilled report {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.asyncgeneratepdf.output;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Sends everything written to it as chunks of a {@link ResponseBodyEmitter}, wrap it in a buffered stream.
+ */
+public class ResponseBodyEmitterOutputStream extends OutputStream {
+
+    private final ResponseBodyEmitter emitter;
+
+    public ResponseBodyEmitterOutputStream(ResponseBodyEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        emitter.send(Arrays.copyOfRange(b, off, off + len), MediaType.APPLICATION_OCTET_STREAM);
+    }
+}
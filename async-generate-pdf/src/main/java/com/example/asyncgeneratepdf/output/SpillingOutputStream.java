@@ -0,0 +1,98 @@
+package com.example.asyncgeneratepdf.output;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Keeps the output in memory up to a threshold and spills it to a temporary file beyond that.
+ * <p>
+ * Large reports therefore never grow a {@link ByteArrayOutputStream} by doubling into huge arrays.
+ */
+public class SpillingOutputStream extends OutputStream {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReportSpillStore spillStore;
+
+    private final long threshold;
+
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream(BUFFER_SIZE);
+
+    private Path file;
+
+    private OutputStream fileOut;
+
+    private long size;
+
+    SpillingOutputStream(ReportSpillStore spillStore, long threshold) {
+        this.spillStore = spillStore;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        target(1).write(b);
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        target(len).write(b, off, len);
+        size += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (fileOut != null) {
+            fileOut.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (fileOut != null) {
+            fileOut.close();
+        }
+    }
+
+    /**
+     * Close the stream and hand over what was written, spilled output stays on disk until the content is released.
+     */
+    public ReportContent toContent() {
+        try {
+            close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return file == null ? new InMemoryReportContent(memory.toByteArray()) : spillStore.register(file, size);
+    }
+
+    /**
+     * Close the stream and delete what was written, after the rendering failed.
+     */
+    public void discard() {
+        try {
+            close();
+            if (file != null) {
+                spillStore.discard(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private OutputStream target(int len) throws IOException {
+        if (file == null && memory.size() + len > threshold) {
+            file = spillStore.createFile();
+            fileOut = new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE);
+            memory.writeTo(fileOut);
+            memory = null;
+        }
+        return file == null ? memory : fileOut;
+    }
+}
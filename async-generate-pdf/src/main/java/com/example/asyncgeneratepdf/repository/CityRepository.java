@@ -1,9 +1,47 @@
 package com.example.asyncgeneratepdf.repository;
 
+import com.example.asyncgeneratepdf.dto.CityRow;
 import com.example.asyncgeneratepdf.entity.City;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface CityRepository extends JpaRepository<City, Long> {
+
+    /**
+     * Read the report rows of all cities through a database cursor, must be consumed inside a transaction.
+     * <p>
+     * The rows are built by a constructor expression, so no entity is hydrated, snapshotted or tracked.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("select new com.example.asyncgeneratepdf.dto.CityRow(c.name, c.population) from City c order by c.id")
+    Stream<CityRow> streamRows();
+
+    /**
+     * Read the report rows of the cities matching the filters, a null filter matches all cities.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("select new com.example.asyncgeneratepdf.dto.CityRow(c.name, c.population) from City c"
+            + " where (:namePrefix is null or c.name like concat(:namePrefix, '%'))"
+            + " and (:minPopulation is null or c.population >= :minPopulation)"
+            + " and (:maxPopulation is null or c.population <= :maxPopulation)"
+            + " order by c.id")
+    Stream<CityRow> streamRows(@Param("namePrefix") String namePrefix,
+                               @Param("minPopulation") Integer minPopulation,
+                               @Param("maxPopulation") Integer maxPopulation);
 }
@@ -0,0 +1,99 @@
+package com.example.asyncgeneratepdf.repository;
+
+import com.example.asyncgeneratepdf.job.PdfJob;
+import com.example.asyncgeneratepdf.job.PdfJobStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_LOCK_TIMEOUT;
+
+/**
+ * The durable PDF job queue. The updates of a running job only apply while the given worker still owns it.
+ */
+@Repository
+public interface PdfJobRepository extends JpaRepository<PdfJob, String> {
+
+    /**
+     * Lock the oldest jobs of the given status, skipping the ones locked by other workers.
+     * <p>
+     * A lock timeout of -2 is Hibernate's {@code SKIP LOCKED}. Databases without it, like H2, wait for the lock
+     * instead, which is still correct but serializes the claims.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("select j from PdfJob j where j.status = :status order by j.createdAt")
+    List<PdfJob> lockOldest(@Param("status") PdfJobStatus status, Pageable pageable);
+
+    long countByStatusIn(Collection<PdfJobStatus> statuses);
+
+    List<PdfJob> findByStatusInAndFinishedAtBefore(Collection<PdfJobStatus> statuses, Instant finishedAt);
+
+    @Transactional
+    @Modifying
+    @Query("update PdfJob j set j.heartbeatAt = :now, j.totalRows = :totalRows, j.renderedRows = :renderedRows"
+            + " where j.id = :id and j.owner = :owner and j.status = com.example.asyncgeneratepdf.job.PdfJobStatus.RUNNING")
+    int heartbeat(@Param("id") String id, @Param("owner") String owner, @Param("now") Instant now,
+                  @Param("totalRows") long totalRows, @Param("renderedRows") long renderedRows);
+
+    @Transactional
+    @Modifying
+    @Query("update PdfJob j set j.status = com.example.asyncgeneratepdf.job.PdfJobStatus.COMPLETED,"
+            + " j.finishedAt = :now, j.renderedRows = j.totalRows, j.resultSize = :resultSize"
+            + " where j.id = :id and j.owner = :owner and j.status = com.example.asyncgeneratepdf.job.PdfJobStatus.RUNNING")
+    int complete(@Param("id") String id, @Param("owner") String owner, @Param("now") Instant now,
+                 @Param("resultSize") long resultSize);
+
+    @Transactional
+    @Modifying
+    @Query("update PdfJob j set j.status = com.example.asyncgeneratepdf.job.PdfJobStatus.FAILED,"
+            + " j.finishedAt = :now, j.error = :error"
+            + " where j.id = :id and j.owner = :owner and j.status = com.example.asyncgeneratepdf.job.PdfJobStatus.RUNNING")
+    int fail(@Param("id") String id, @Param("owner") String owner, @Param("now") Instant now,
+             @Param("error") String error);
+
+    /**
+     * Put a job the worker gives up back in the queue, e.g. when it shuts down. The job did not fail, so its attempt
+     * is given back.
+     */
+    @Transactional
+    @Modifying
+    @Query("update PdfJob j set j.status = com.example.asyncgeneratepdf.job.PdfJobStatus.QUEUED, j.owner = null,"
+            + " j.attempts = j.attempts - 1"
+            + " where j.id = :id and j.owner = :owner and j.status = com.example.asyncgeneratepdf.job.PdfJobStatus.RUNNING")
+    int requeue(@Param("id") String id, @Param("owner") String owner);
+
+    /**
+     * Put the running jobs whose worker stopped sending heartbeats back in the queue.
+     */
+    @Transactional
+    @Modifying
+    @Query("update PdfJob j set j.status = com.example.asyncgeneratepdf.job.PdfJobStatus.QUEUED, j.owner = null"
+            + " where j.status = com.example.asyncgeneratepdf.job.PdfJobStatus.RUNNING"
+            + " and j.heartbeatAt < :staleBefore and j.attempts < :maxAttempts")
+    int requeueStale(@Param("staleBefore") Instant staleBefore, @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Fail the stale running jobs that already used up their attempts, so a job crashing its workers is not retried forever.
+     */
+    @Transactional
+    @Modifying
+    @Query("update PdfJob j set j.status = com.example.asyncgeneratepdf.job.PdfJobStatus.FAILED,"
+            + " j.finishedAt = :now, j.error = 'Worker lost, no attempts left'"
+            + " where j.status = com.example.asyncgeneratepdf.job.PdfJobStatus.RUNNING"
+            + " and j.heartbeatAt < :staleBefore and j.attempts >= :maxAttempts")
+    int failStale(@Param("staleBefore") Instant staleBefore, @Param("maxAttempts") int maxAttempts,
+                  @Param("now") Instant now);
+}
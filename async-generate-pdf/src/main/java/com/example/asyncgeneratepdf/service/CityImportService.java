@@ -0,0 +1,226 @@
+package com.example.asyncgeneratepdf.service;
+
+import com.example.asyncgeneratepdf.dto.CityImportResult;
+import com.example.asyncgeneratepdf.dto.CityRow;
+import com.example.asyncgeneratepdf.exception.InvalidCityImportException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Imports cities from CSV or NDJSON streams with JDBC batch inserts, committed in chunks.
+ * <p>
+ * {@code City} uses an identity id, which disables Hibernate's insert batching, so the rows are inserted with
+ * {@link JdbcTemplate#batchUpdate} instead. The input is parsed while it is read, only one chunk is held in memory.
+ * The inserts bypass the entity listener, so the {@link CityTableVersion} is bumped in the transaction of every chunk.
+ */
+@Service
+@Slf4j
+public class CityImportService {
+
+    private static final String INSERT_CITY = "insert into t_city (name, population) values (?, ?)";
+
+    private static final String CSV_HEADER = "name,population";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CityTableVersion cityTableVersion;
+
+    private final ObjectMapper objectMapper;
+
+    private final int chunkSize;
+
+    private final int batchSize;
+
+    public CityImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             CityTableVersion cityTableVersion, ObjectMapper objectMapper,
+                             @Value("${cities.import.chunk-size}") int chunkSize,
+                             @Value("${cities.import.batch-size}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cityTableVersion = cityTableVersion;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Import {@code name,population} records, the header line is optional and names may be quoted. A quoted name may
+     * span lines, as written by the CSV export.
+     * <p>
+     * The chunks committed before an invalid record stay imported.
+     */
+    public CityImportResult importCsv(InputStream in) {
+        ChunkedImport chunkedImport = new ChunkedImport();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            CsvRecordReader records = new CsvRecordReader(reader);
+            String record;
+            while ((record = records.next()) != null) {
+                long lineNumber = records.recordLineNumber;
+                if (record.isBlank() || (lineNumber == 1 && record.replace(" ", "").equalsIgnoreCase(CSV_HEADER))) {
+                    continue;
+                }
+                if (records.openQuote) {
+                    throw chunkedImport.invalid(lineNumber, "quoted name is not closed");
+                }
+                chunkedImport.add(parseCsvLine(record, lineNumber, chunkedImport), lineNumber);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return chunkedImport.finish();
+    }
+
+    /**
+     * Import one {@code {"name": ..., "population": ...}} object per line.
+     * <p>
+     * The chunks committed before an invalid line stay imported.
+     */
+    public CityImportResult importNdjson(InputStream in) {
+        ChunkedImport chunkedImport = new ChunkedImport();
+        try (MappingIterator<CityRow> rows = objectMapper.readerFor(CityRow.class).readValues(in)) {
+            while (rows.hasNextValue()) {
+                CityRow row = rows.nextValue();
+                chunkedImport.add(row, rows.getCurrentLocation().getLineNr());
+            }
+        } catch (JsonProcessingException e) {
+            throw chunkedImport.invalid(e.getLocation() != null ? e.getLocation().getLineNr() : -1,
+                    e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return chunkedImport.finish();
+    }
+
+    private CityRow parseCsvLine(String line, long lineNumber, ChunkedImport chunkedImport) {
+        // The population is the last field, so unquoted commas in the name are kept
+        int comma = line.lastIndexOf(',');
+        if (comma < 0) {
+            throw chunkedImport.invalid(lineNumber, "expected name,population");
+        }
+
+        String name = line.substring(0, comma).trim();
+        if (name.length() >= 2 && name.startsWith("\"") && name.endsWith("\"")) {
+            name = name.substring(1, name.length() - 1).replace("\"\"", "\"");
+        }
+        try {
+            return new CityRow(name, Integer.valueOf(line.substring(comma + 1).trim()));
+        } catch (NumberFormatException e) {
+            throw chunkedImport.invalid(lineNumber, "population is not a number");
+        }
+    }
+
+    /**
+     * Splits CSV input into records at the line breaks outside quotes, a line break inside quotes is kept in the record.
+     */
+    private static class CsvRecordReader {
+        private final BufferedReader reader;
+        private final StringBuilder record = new StringBuilder();
+        private long lineNumber = 1;
+        // The line the last record started on
+        private long recordLineNumber;
+        // Whether the input ended inside the quotes of the last record
+        private boolean openQuote;
+
+        private CsvRecordReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        private String next() throws IOException {
+            record.setLength(0);
+            recordLineNumber = lineNumber;
+            openQuote = false;
+            int c;
+            while ((c = reader.read()) >= 0) {
+                if (c == '"') {
+                    openQuote = !openQuote;
+                } else if (c == '\r' || c == '\n') {
+                    if (c == '\r') {
+                        reader.mark(1);
+                        if (reader.read() != '\n') {
+                            reader.reset();
+                        } else if (openQuote) {
+                            record.append('\r');
+                            c = '\n';
+                        }
+                    }
+                    lineNumber++;
+                    if (!openQuote) {
+                        return record.toString();
+                    }
+                }
+                record.append((char) c);
+            }
+            return record.length() > 0 ? record.toString() : null;
+        }
+    }
+
+    /**
+     * Collects the rows of one import and commits them chunk by chunk.
+     */
+    private class ChunkedImport {
+        private final long start = System.nanoTime();
+        private final List<CityRow> chunk = new ArrayList<>(chunkSize);
+        private long importedRows;
+        private int chunks;
+
+        private void add(CityRow row, long lineNumber) {
+            if (row.name() == null || row.name().isBlank()) {
+                throw invalid(lineNumber, "name is missing");
+            }
+            if (row.population() == null || row.population() < 0) {
+                throw invalid(lineNumber, "population is missing or negative");
+            }
+
+            chunk.add(row);
+            if (chunk.size() >= chunkSize) {
+                commitChunk();
+            }
+        }
+
+        private CityImportResult finish() {
+            if (!chunk.isEmpty()) {
+                commitChunk();
+            }
+            long durationMillis = (System.nanoTime() - start) / 1_000_000;
+            log.info("Imported {} cities in {} chunks in {} ms", importedRows, chunks, durationMillis);
+            return new CityImportResult(importedRows, chunks, durationMillis);
+        }
+
+        private void commitChunk() {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_CITY, chunk, batchSize, (ps, row) -> {
+                    ps.setString(1, row.name());
+                    ps.setInt(2, row.population());
+                });
+                cityTableVersion.increment();
+            });
+
+            importedRows += chunk.size();
+            chunks++;
+            chunk.clear();
+        }
+
+        private InvalidCityImportException invalid(long lineNumber, String reason) {
+            return new InvalidCityImportException("Line " + lineNumber + ": " + reason + ", "
+                    + importedRows + " cities were imported before it");
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.asyncgeneratepdf.service;
+
+import com.example.asyncgeneratepdf.dto.CityRow;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.utils.PdfMerger;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.List;
+import com.itextpdf.layout.element.ListItem;
+import com.itextpdf.layout.property.ListNumberingType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Renders the cities as a numbered list in a PDF document.
+ * <p>
+ * Reports with more rows than the partition size are split into partitions that are rendered in parallel on
+ * {@code pdfPartitionPool} and merged in order, the list numbering continues across the partitions.
+ */
+@Component
+@Slf4j
+public class CityPdfWriter {
+
+    // Items per iText list, so finished pages are flushed instead of laying out one huge list
+    private static final int ITEMS_PER_LIST = 500;
+
+    private final ForkJoinPool pdfPartitionPool;
+
+    private final int partitionSize;
+
+    private final PdfResources pdfResources;
+
+    // Rendered partitions waiting to be merged, bounds the memory held by a partitioned report
+    private final int maxPartitionsInFlight;
+
+    public CityPdfWriter(@Qualifier("pdfPartitionPool") ForkJoinPool pdfPartitionPool,
+                         @Value("${pdf.render.partition-size}") int partitionSize,
+                         PdfResources pdfResources) {
+        this.pdfPartitionPool = pdfPartitionPool;
+        this.partitionSize = partitionSize;
+        this.pdfResources = pdfResources;
+        this.maxPartitionsInFlight = pdfPartitionPool.getParallelism() * 2;
+    }
+
+    /**
+     * Render a throwaway report at startup, so the first request does not pay for loading the iText classes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        Iterator<CityRow> cities = LongStream.rangeClosed(1, ITEMS_PER_LIST)
+                .mapToObj(id -> new CityRow("City " + id, 0))
+                .iterator();
+        writeDocument(cities, OutputStream.nullOutputStream(), 1, renderedRows -> {
+        });
+        log.info("PDF rendering warmed up in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void write(Stream<CityRow> cities, OutputStream out, LongConsumer progressListener) {
+        Iterator<CityRow> iterator = cities.iterator();
+        if (partitionSize <= 0) {
+            writeDocument(iterator, out, 1, progressListener);
+            return;
+        }
+
+        // Only pay for partitioning and merging when the report has more than one partition
+        java.util.List<CityRow> firstPartition = nextPartition(iterator);
+        if (!iterator.hasNext()) {
+            writeDocument(firstPartition.iterator(), out, 1, progressListener);
+            return;
+        }
+        writePartitioned(firstPartition, iterator, out, progressListener);
+    }
+
+    private void writePartitioned(java.util.List<CityRow> firstPartition, Iterator<CityRow> iterator, OutputStream out,
+                                  LongConsumer progressListener) {
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+
+        Deque<Partition> partitions = new ArrayDeque<>();
+        try (PdfDocument pdf = new PdfDocument(writer)) {
+            PdfMerger merger = new PdfMerger(pdf, false, false).setCloseSourceDocuments(true);
+            long mergedRows = 0;
+            int nextIndex = 1;
+
+            java.util.List<CityRow> rows = firstPartition;
+            while (!rows.isEmpty()) {
+                java.util.List<CityRow> partitionRows = rows;
+                int startIndex = nextIndex;
+                partitions.add(new Partition(partitionRows.size(),
+                        CompletableFuture.supplyAsync(() -> renderPartition(partitionRows, startIndex), pdfPartitionPool)));
+                nextIndex += partitionRows.size();
+
+                if (partitions.size() >= maxPartitionsInFlight) {
+                    mergedRows += merge(partitions.removeFirst(), pdf, merger);
+                    progressListener.accept(mergedRows);
+                }
+                rows = nextPartition(iterator);
+            }
+
+            while (!partitions.isEmpty()) {
+                mergedRows += merge(partitions.removeFirst(), pdf, merger);
+                progressListener.accept(mergedRows);
+            }
+        } finally {
+            partitions.forEach(partition -> partition.content().cancel(false));
+        }
+    }
+
+    private int merge(Partition partition, PdfDocument pdf, PdfMerger merger) {
+        byte[] content = partition.content().join();
+        int firstPage = pdf.getNumberOfPages() + 1;
+        try {
+            PdfDocument source = new PdfDocument(new PdfReader(new ByteArrayInputStream(content)));
+            merger.merge(source, 1, source.getNumberOfPages());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // Write the merged pages out, so the document does not keep them in memory
+        for (int page = firstPage; page <= pdf.getNumberOfPages(); page++) {
+            pdf.getPage(page).flush();
+        }
+        return partition.rows();
+    }
+
+    private byte[] renderPartition(java.util.List<CityRow> rows, int startIndex) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeDocument(rows.iterator(), baos, startIndex, renderedRows -> {
+        });
+        return baos.toByteArray();
+    }
+
+    private void writeDocument(Iterator<CityRow> cities, OutputStream out, int startIndex, LongConsumer progressListener) {
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+
+        // Create a new PDF document
+        PdfDocument pdf = new PdfDocument(writer);
+
+        try (Document document = pdfResources.newDocument(pdf)) {
+
+            // Add the items in chunks, the numbering continues from one list to the next
+            int rendered = 0;
+            List list = newList(startIndex);
+            while (cities.hasNext()) {
+                CityRow city = cities.next();
+                list.add(new ListItem(city.name() + ", population " + city.population()));
+                rendered++;
+
+                if (rendered % ITEMS_PER_LIST == 0) {
+                    document.add(list);
+                    progressListener.accept(rendered);
+                    list = newList(startIndex + rendered);
+                }
+            }
+
+            if (rendered == 0 || rendered % ITEMS_PER_LIST != 0) {
+                document.add(list);
+            }
+            progressListener.accept(rendered);
+        }
+    }
+
+    private List newList(int startIndex) {
+        List list = new List(ListNumberingType.DECIMAL).setItemStartIndex(startIndex);
+        list.addStyle(pdfResources.getListStyle());
+        return list;
+    }
+
+    private java.util.List<CityRow> nextPartition(Iterator<CityRow> iterator) {
+        java.util.List<CityRow> rows = new ArrayList<>(partitionSize);
+        while (rows.size() < partitionSize && iterator.hasNext()) {
+            rows.add(iterator.next());
+        }
+        return rows;
+    }
+
+    private record Partition(int rows, CompletableFuture<byte[]> content) {
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.asyncgeneratepdf.service;
+
+import com.example.asyncgeneratepdf.output.ReportContent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps a rendered city report ready, so {@code /cities/pdf} can answer without waiting for a render.
+ * <p>
+ * Every change of the {@code t_city} table marks the report dirty, and it is rebuilt in the background once
+ * {@code pdf.prerender.debounce} has passed. Changes arriving meanwhile or during the render are folded into the next
+ * rebuild, so the report is rendered at most once per window while the previous version keeps being served.
+ */
+@Component
+@Slf4j
+public class CityReportPreRenderer {
+
+    private static final String CITIES_REPORT = "cities";
+
+    private final CityTableVersion cityTableVersion;
+
+    private final PdfGeneratingService pdfGeneratingService;
+
+    private final TaskScheduler taskScheduler;
+
+    private final Duration debounce;
+
+    // Set while a rebuild is scheduled or rendering, cleared once its report is published
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private volatile PreRenderedReport current;
+
+    public CityReportPreRenderer(CityTableVersion cityTableVersion, PdfGeneratingService pdfGeneratingService,
+                                 TaskScheduler taskScheduler,
+                                 @Value("${pdf.prerender.debounce}") Duration debounce) {
+        this.cityTableVersion = cityTableVersion;
+        this.pdfGeneratingService = pdfGeneratingService;
+        this.taskScheduler = taskScheduler;
+        this.debounce = debounce;
+    }
+
+    public record PreRenderedReport(long version, String eTag, ReportContent content) {
+    }
+
+    /**
+     * The ETag of the report served right now, null until the first report is rendered.
+     */
+    public String currentETag() {
+        PreRenderedReport report = current;
+        return report != null ? report.eTag() : null;
+    }
+
+    /**
+     * The latest rendered report, possibly older than the table while a rebuild is pending, or null until the first
+     * report is rendered. The caller owns one reference to the content and has to release it once written.
+     */
+    public PreRenderedReport current() {
+        PreRenderedReport report = current;
+        // A report replaced meanwhile may already be released, the one replacing it is published by then
+        while (report != null && !report.content().retain()) {
+            report = current;
+        }
+        return report;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void renderInitialReport() {
+        markDirty();
+    }
+
+    @EventListener
+    public void cityTableChanged(CityTableChangedEvent event) {
+        markDirty();
+    }
+
+    private void markDirty() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::rebuild, Instant.now().plus(debounce));
+        }
+    }
+
+    private void rebuild() {
+        // Read the version before the cities, so the report is never older than its version
+        long version = cityTableVersion.get();
+        ReportKey key = new ReportKey(CITIES_REPORT, version);
+
+        try {
+            pdfGeneratingService.generatePdf(key).whenComplete((content, ex) -> {
+                if (ex != null) {
+                    log.warn("Pre-rendering the city report failed, retrying in the next window", ex);
+                } else {
+                    publish(version, content);
+                }
+                rebuildFinished(version, ex != null);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Pre-rendering the city report was rejected, retrying in the next window", e);
+            rebuildFinished(version, true);
+        }
+    }
+
+    private void publish(long version, ReportContent content) {
+        // Spilled reports are kept as well, the spill store never reaps a file that is still referenced
+        PreRenderedReport previous = current;
+        current = new PreRenderedReport(version, cityTableVersion.toETag(version), content);
+        if (previous != null) {
+            previous.content().release();
+        }
+    }
+
+    private void rebuildFinished(long version, boolean failed) {
+        rebuildPending.set(false);
+        if (failed || cityTableVersion.get() != version) {
+            markDirty();
+        }
+    }
+}
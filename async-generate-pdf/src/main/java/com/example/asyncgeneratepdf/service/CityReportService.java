@@ -0,0 +1,70 @@
+package com.example.asyncgeneratepdf.service;
+
+import com.example.asyncgeneratepdf.output.InMemoryReportContent;
+import com.example.asyncgeneratepdf.output.ReportContent;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Serves the city report pre-rendered by the {@link CityReportPreRenderer}, and falls back to the
+ * {@link PdfReportCache} and an on-demand render until the first report is ready or when it is too large to keep.
+ * <p>
+ * Only reports kept in memory are cached, a report spilled to disk is served once and then reaped.
+ */
+@Service
+public class CityReportService {
+
+    private static final String CITIES_REPORT = "cities";
+
+    private final CityTableVersion cityTableVersion;
+
+    private final PdfReportCache pdfReportCache;
+
+    private final PdfGeneratingService pdfGeneratingService;
+
+    private final CityReportPreRenderer cityReportPreRenderer;
+
+    public CityReportService(CityTableVersion cityTableVersion, PdfReportCache pdfReportCache,
+                             PdfGeneratingService pdfGeneratingService, CityReportPreRenderer cityReportPreRenderer) {
+        this.cityTableVersion = cityTableVersion;
+        this.pdfReportCache = pdfReportCache;
+        this.pdfGeneratingService = pdfGeneratingService;
+        this.cityReportPreRenderer = cityReportPreRenderer;
+    }
+
+    public record Report(String eTag, ReportContent content) {
+    }
+
+    /**
+     * The ETag of the current report, computed without touching the database.
+     */
+    public String currentETag() {
+        String preRenderedETag = cityReportPreRenderer.currentETag();
+        return preRenderedETag != null ? preRenderedETag : cityTableVersion.toETag(cityTableVersion.get());
+    }
+
+    public CompletableFuture<Report> getReport() {
+        CityReportPreRenderer.PreRenderedReport preRendered = cityReportPreRenderer.current();
+        if (preRendered != null) {
+            return CompletableFuture.completedFuture(new Report(preRendered.eTag(), preRendered.content()));
+        }
+
+        // Read the version before the cities, so the report is never older than its version
+        long version = cityTableVersion.get();
+        String eTag = cityTableVersion.toETag(version);
+        ReportKey key = new ReportKey(CITIES_REPORT, version);
+
+        byte[] cached = pdfReportCache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(new Report(eTag, new InMemoryReportContent(cached)));
+        }
+
+        return pdfGeneratingService.generatePdf(key).thenApply(content -> {
+            if (content instanceof InMemoryReportContent inMemory) {
+                pdfReportCache.put(key, inMemory.getBytes());
+            }
+            return new Report(eTag, content);
+        });
+    }
+}
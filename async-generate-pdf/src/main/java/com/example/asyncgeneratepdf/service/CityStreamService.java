@@ -0,0 +1,107 @@
+package com.example.asyncgeneratepdf.service;
+
+import com.example.asyncgeneratepdf.dto.CityReportSpec;
+import com.example.asyncgeneratepdf.dto.CityRow;
+import com.example.asyncgeneratepdf.repository.CityRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Spliterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+@Service
+public class CityStreamService {
+
+    private final CityRepository cityRepository;
+
+    private final Timer fetchTimer;
+
+    public CityStreamService(CityRepository cityRepository, MeterRegistry meterRegistry) {
+        this.cityRepository = cityRepository;
+        this.fetchTimer = Timer.builder("pdf.db.fetch")
+                .description("Time spent reading the cities of a report from the database cursor")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hand the cities to the reader as a stream over a read-only database cursor.
+     * <p>
+     * The rows are {@link CityRow} projections, not entities, so the persistence context stays empty however big the
+     * table is. The rows are read while the reader renders them, so only the time spent in the cursor is recorded as {@code pdf.db.fetch}.
+     */
+    @Transactional(readOnly = true)
+    public void readCities(Consumer<Stream<CityRow>> reader) {
+        read(cityRepository.streamRows(), reader);
+    }
+
+    /**
+     * Hand the cities matching the report specification to the reader, like {@link #readCities(Consumer)}.
+     */
+    @Transactional(readOnly = true)
+    public void readCities(CityReportSpec spec, Consumer<Stream<CityRow>> reader) {
+        read(cityRepository.streamRows(spec.getNamePrefix(), spec.getMinPopulation(), spec.getMaxPopulation()), reader);
+    }
+
+    private void read(Stream<CityRow> rows, Consumer<Stream<CityRow>> reader) {
+        try (Stream<CityRow> cities = rows) {
+            TimedSpliterator timed = new TimedSpliterator(cities.spliterator());
+            try {
+                reader.accept(StreamSupport.stream(timed, false));
+            } finally {
+                fetchTimer.record(timed.nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Adds up the time spent advancing the cursor, read by a single thread.
+     */
+    private static class TimedSpliterator implements Spliterator<CityRow>, Consumer<CityRow> {
+        private final Spliterator<CityRow> cursor;
+        private long nanos;
+        private CityRow next;
+
+        private TimedSpliterator(Spliterator<CityRow> cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super CityRow> action) {
+            long start = System.nanoTime();
+            boolean advanced = cursor.tryAdvance(this);
+            nanos += System.nanoTime() - start;
+            if (advanced) {
+                CityRow city = next;
+                next = null;
+                action.accept(city);
+            }
+            return advanced;
+        }
+
+        @Override
+        public void accept(CityRow city) {
+            next = city;
+        }
+
+        @Override
+        public Spliterator<CityRow> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return cursor.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return cursor.characteristics();
+        }
+    }
+}
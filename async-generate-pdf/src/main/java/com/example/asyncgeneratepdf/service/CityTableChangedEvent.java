@@ -0,0 +1,7 @@
+package com.example.asyncgeneratepdf.service;
+
+/**
+ * Published by {@link CityTableVersion} every time the version of the {@code t_city} table changes.
+ */
+public record CityTableChangedEvent(long version) {
+}
@@ -0,0 +1,94 @@
+package com.example.asyncgeneratepdf.service;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the {@code t_city} table, kept in the {@code t_city_version} row so every instance sees the changes of
+ * the others.
+ * <p>
+ * A write transaction bumps the row once, inside the transaction, so the rows and the version are committed together.
+ * Changes committed by this instance are picked up right after their commit, the ones of other instances by polling the
+ * row every {@code pdf.version.poll-interval}. Every new version is published as a {@link CityTableChangedEvent}.
+ */
+@Component
+public class CityTableVersion {
+
+    private static final String SELECT_VERSION = "select version from t_city_version where id = 1";
+
+    private static final String BUMP_VERSION = "update t_city_version set version = version + 1 where id = 1";
+
+    // Bound to a transaction that has bumped the version already
+    private static final String BUMPED = CityTableVersion.class.getName() + ".BUMPED";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    // The latest version read from the row, -1 until it is read the first time
+    private final AtomicLong version = new AtomicLong(-1);
+
+    public CityTableVersion(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public long get() {
+        long current = version.get();
+        if (current < 0) {
+            refresh();
+            current = version.get();
+        }
+        return current;
+    }
+
+    /**
+     * Bump the version in the current transaction, once per transaction, or on its own outside one.
+     */
+    public void increment() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            jdbcTemplate.update(BUMP_VERSION);
+            refresh();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(BUMPED)) {
+            return;
+        }
+
+        jdbcTemplate.update(BUMP_VERSION);
+        TransactionSynchronizationManager.bindResource(BUMPED, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(BUMPED);
+            }
+        });
+    }
+
+    /**
+     * Read the version from the row, a newer one than known is published.
+     */
+    @Scheduled(fixedDelayString = "${pdf.version.poll-interval}")
+    public void refresh() {
+        long current = jdbcTemplate.queryForObject(SELECT_VERSION, Long.class);
+        long previous = version.getAndAccumulate(current, Math::max);
+        if (previous >= 0 && current > previous) {
+            eventPublisher.publishEvent(new CityTableChangedEvent(current));
+        }
+    }
+
+    public String toETag(long version) {
+        return "\"cities-" + version + "\"";
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.asyncgeneratepdf.service;
+
+import com.example.asyncgeneratepdf.dto.CityReportSpec;
+import com.example.asyncgeneratepdf.exception.InvalidReportSpecException;
+import com.example.asyncgeneratepdf.output.ReportContent;
+import com.example.asyncgeneratepdf.output.ReportSpillStore;
+import com.example.asyncgeneratepdf.output.SpillingOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Exports several city reports as one ZIP archive.
+ */
+@Service
+@Slf4j
+public class CityZipExportService {
+
+    private static final Pattern REPORT_NAME = Pattern.compile("[\\w.-]+");
+
+    private final CityStreamService cityStreamService;
+
+    private final PdfGeneratingService pdfGeneratingService;
+
+    private final ReportSpillStore reportSpillStore;
+
+    private final Executor pdfGenerateExecutor;
+
+    private final Executor mvcAsyncExecutor;
+
+    private final int maxReports;
+
+    public CityZipExportService(CityStreamService cityStreamService,
+                                PdfGeneratingService pdfGeneratingService,
+                                ReportSpillStore reportSpillStore,
+                                @Qualifier("pdfGenerateExecutor") Executor pdfGenerateExecutor,
+                                @Qualifier("mvcAsyncExecutor") Executor mvcAsyncExecutor,
+                                @Value("${pdf.zip.max-reports}") int maxReports) {
+        this.cityStreamService = cityStreamService;
+        this.pdfGeneratingService = pdfGeneratingService;
+        this.reportSpillStore = reportSpillStore;
+        this.pdfGenerateExecutor = pdfGenerateExecutor;
+        this.mvcAsyncExecutor = mvcAsyncExecutor;
+        this.maxReports = maxReports;
+    }
+
+    /**
+     * Render the reports concurrently on {@code pdfGenerateExecutor} and write each one into the ZIP as soon as it
+     * is finished, in the order they finish.
+     * <p>
+     * All renders are submitted before this method returns, so a rejection is thrown before anything is written.
+     * No thread waits for the renders: a finished render hands its report to a single writer on
+     * {@code mvcAsyncExecutor}, so a slow client never holds a PDF thread, and large reports are spilled to disk until
+     * they are written. The returned future completes once the ZIP is finished.
+     */
+    public CompletableFuture<Void> export(List<CityReportSpec> specs, OutputStream out) {
+        validate(specs);
+
+        List<CompletableFuture<ReportContent>> renders = new ArrayList<>();
+        try {
+            for (CityReportSpec spec : specs) {
+                renders.add(CompletableFuture.supplyAsync(() -> render(spec), pdfGenerateExecutor));
+            }
+        } catch (RejectedExecutionException e) {
+            renders.forEach(render -> render.thenAccept(ReportContent::release));
+            throw e;
+        }
+
+        ZipExport export = new ZipExport(out, specs.size(), mvcAsyncExecutor);
+        for (int i = 0; i < specs.size(); i++) {
+            CityReportSpec spec = specs.get(i);
+            renders.get(i).whenComplete((content, ex) -> export.add(spec, content, ex));
+        }
+        return export.result;
+    }
+
+    private ReportContent render(CityReportSpec spec) {
+        log.info("Generating PDF {} of ZIP export...", spec.getName());
+        SpillingOutputStream out = reportSpillStore.newOutputStream();
+        try {
+            cityStreamService.readCities(spec, cities -> pdfGeneratingService.writePdf(cities, out));
+        } catch (RuntimeException e) {
+            out.discard();
+            throw e;
+        }
+        return out.toContent();
+    }
+
+    private void validate(List<CityReportSpec> specs) {
+        if (specs == null || specs.isEmpty()) {
+            throw new InvalidReportSpecException("At least one report is required");
+        }
+        if (specs.size() > maxReports) {
+            throw new InvalidReportSpecException("Too many reports: max=" + maxReports);
+        }
+
+        Set<String> names = new HashSet<>();
+        for (CityReportSpec spec : specs) {
+            if (spec.getName() == null || !REPORT_NAME.matcher(spec.getName()).matches()) {
+                throw new InvalidReportSpecException("Invalid report name: " + spec.getName());
+            }
+            if (!names.add(spec.getName())) {
+                throw new InvalidReportSpecException("Duplicate report name: " + spec.getName());
+            }
+            if (spec.getMinPopulation() != null && spec.getMaxPopulation() != null
+                    && spec.getMinPopulation() > spec.getMaxPopulation()) {
+                throw new InvalidReportSpecException("Invalid population range of report " + spec.getName());
+            }
+        }
+    }
+
+    /**
+     * The ZIP being written. Finished reports are queued and written one at a time by a single writer task, which is
+     * scheduled on the writer executor whenever the queue was idle.
+     */
+    private static class ZipExport {
+        private final ZipOutputStream zip;
+        private final Executor writer;
+        private final Queue<FinishedReport> finished = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean writing = new AtomicBoolean();
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        // Only touched by the writer task
+        private int remaining;
+
+        private ZipExport(OutputStream out, int reports, Executor writer) {
+            this.zip = new ZipOutputStream(out);
+            // The PDF streams are compressed already, deflating them again only costs CPU
+            this.zip.setLevel(Deflater.NO_COMPRESSION);
+            this.writer = writer;
+            this.remaining = reports;
+        }
+
+        private void add(CityReportSpec spec, ReportContent content, Throwable ex) {
+            finished.add(new FinishedReport(spec, content, ex));
+            scheduleWriter();
+        }
+
+        private void scheduleWriter() {
+            while (!finished.isEmpty() && writing.compareAndSet(false, true)) {
+                try {
+                    writer.execute(this::write);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    result.completeExceptionally(e);
+                    // Without a writer the queued reports are only released
+                    write();
+                }
+            }
+        }
+
+        private void write() {
+            try {
+                for (FinishedReport entry = finished.poll(); entry != null; entry = finished.poll()) {
+                    write(entry);
+                }
+            } finally {
+                writing.set(false);
+            }
+            // A report queued after the last poll found the writer still running
+            scheduleWriter();
+        }
+
+        private void write(FinishedReport entry) {
+            try {
+                if (result.isDone()) {
+                    return;
+                }
+                if (entry.error() != null) {
+                    result.completeExceptionally(entry.error());
+                    return;
+                }
+
+                zip.putNextEntry(new ZipEntry(entry.spec().getName() + ".pdf"));
+                entry.content().writeTo(zip);
+                zip.closeEntry();
+                zip.flush();
+
+                if (--remaining == 0) {
+                    zip.finish();
+                    zip.flush();
+                    result.complete(null);
+                }
+            } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            } finally {
+                if (entry.content() != null) {
+                    entry.content().release();
+                }
+            }
+        }
+    }
+
+    private record FinishedReport(CityReportSpec spec, ReportContent content, Throwable error) {
+    }
+}
@@ -1,51 +1,174 @@
 package com.example.asyncgeneratepdf.service;
 
-import com.example.asyncgeneratepdf.entity.City;
-import com.itextpdf.kernel.geom.PageSize;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
-import com.itextpdf.layout.Document;
-import com.itextpdf.layout.element.List;
-import com.itextpdf.layout.element.ListItem;
-import com.itextpdf.layout.property.ListNumberingType;
+import com.example.asyncgeneratepdf.dto.CityRow;
+import com.example.asyncgeneratepdf.output.ReportContent;
+import com.example.asyncgeneratepdf.output.ReportSpillStore;
+import com.example.asyncgeneratepdf.output.SpillingOutputStream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 public class PdfGeneratingService {
 
-    @Async("pdfGenerateExecutor")
-    public CompletableFuture<ByteArrayOutputStream> generatePdf(java.util.List<City> cityList) {
-        log.info("Generating PDF...");
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    private final CityStreamService cityStreamService;
+
+    private final CityPdfWriter cityPdfWriter;
+
+    private final ReportSpillStore reportSpillStore;
+
+    private final Executor pdfGenerateExecutor;
+
+    private final Map<ReportKey, InFlightRender> inFlightRenders = new ConcurrentHashMap<>();
+
+    private final Counter coalescedRequests;
+
+    private final DistributionSummary requestsPerRender;
 
-        // Create a new PDF document
-        PdfDocument pdf = new PdfDocument(new PdfWriter(baos));
+    private final Timer renderTimer;
 
-        try (Document document = new Document(pdf, PageSize.A4)) {
+    private final DistributionSummary outputSize;
 
-            // Create a new list with the items
-            List list = new List(ListNumberingType.DECIMAL);
-            for (City city : cityList) {
-                list.add(new ListItem(city.toString()));
+    public PdfGeneratingService(CityStreamService cityStreamService,
+                                CityPdfWriter cityPdfWriter,
+                                ReportSpillStore reportSpillStore,
+                                @Qualifier("pdfGenerateExecutor") Executor pdfGenerateExecutor,
+                                MeterRegistry meterRegistry) {
+        this.cityStreamService = cityStreamService;
+        this.cityPdfWriter = cityPdfWriter;
+        this.reportSpillStore = reportSpillStore;
+        this.pdfGenerateExecutor = pdfGenerateExecutor;
+        this.coalescedRequests = Counter.builder("pdf.render.coalesced")
+                .description("Requests that joined a render already in flight")
+                .register(meterRegistry);
+        this.requestsPerRender = DistributionSummary.builder("pdf.render.requests")
+                .description("Requests served by a single render")
+                .register(meterRegistry);
+        this.renderTimer = Timer.builder("pdf.render")
+                .description("Time to render a PDF, including reading the cities")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.outputSize = DistributionSummary.builder("pdf.render.output.size")
+                .description("Size of the rendered PDFs")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Generate the report on {@code pdfGenerateExecutor}.
+     * <p>
+     * Concurrent requests for the same report share the render in flight instead of each queueing their own,
+     * so the task is submitted here rather than through {@code @Async}. Every request owns one reference to the
+     * content and has to release it once written.
+     */
+    public CompletableFuture<ReportContent> generatePdf(ReportKey reportKey) {
+        InFlightRender render = new InFlightRender();
+        InFlightRender inFlight = inFlightRenders.compute(reportKey, (key, existing) -> {
+            if (existing == null) {
+                return render;
             }
+            existing.requests.incrementAndGet();
+            return existing;
+        });
+        if (inFlight != render) {
+            coalescedRequests.increment();
+            return inFlight.result.copy();
+        }
 
-            document.add(list);
+        try {
+            CompletableFuture.supplyAsync(this::renderCities, pdfGenerateExecutor).whenComplete((content, ex) -> {
+                // nobody can join once removed, so the request count is final
+                inFlightRenders.remove(reportKey, render);
+                int requests = render.requests.get();
+                requestsPerRender.record(requests);
+                if (ex != null) {
+                    render.result.completeExceptionally(ex);
+                } else {
+                    content.retain(requests - 1);
+                    render.result.complete(content);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlightRenders.remove(reportKey, render);
+            render.result.completeExceptionally(e);
+            throw e;
         }
+        return render.result.copy();
+    }
+
+    private ReportContent renderCities() {
+        log.info("Generating PDF...");
+        SpillingOutputStream out = reportSpillStore.newOutputStream();
 
-        //TODO simulate slow PDF generation
         try {
-            Thread.sleep(10000L);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+            cityStreamService.readCities(cities -> writePdf(cities, out));
+        } catch (RuntimeException e) {
+            out.discard();
+            throw e;
         }
 
         log.info("PDF generated successfully");
-        return CompletableFuture.completedFuture(baos);
+        return out.toContent();
+    }
+
+    /**
+     * Render the cities as a PDF straight into the given stream.
+     * <p>
+     * The stream is not closed, so it can be the servlet output stream of a streaming response.
+     */
+    public void writePdf(Stream<CityRow> cities, OutputStream out) {
+        writePdf(cities, out, renderedRows -> {
+        });
+    }
+
+    /**
+     * Render the cities as a PDF straight into the given stream, reporting the number of rendered rows as it goes.
+     */
+    public void writePdf(Stream<CityRow> cities, OutputStream out, LongConsumer progressListener) {
+        CountingOutputStream counting = new CountingOutputStream(out);
+        renderTimer.record(() -> cityPdfWriter.write(cities, counting, progressListener));
+        outputSize.record(counting.count);
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private static class InFlightRender {
+        private final CompletableFuture<ReportContent> result = new CompletableFuture<>();
+        private final AtomicInteger requests = new AtomicInteger(1);
     }
 }
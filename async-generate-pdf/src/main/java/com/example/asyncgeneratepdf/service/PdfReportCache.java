@@ -0,0 +1,60 @@
+package com.example.asyncgeneratepdf.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of rendered reports, bounded by the total size of the cached documents.
+ * <p>
+ * Entries are keyed by report name and table version, a newer version of a report replaces the older ones.
+ */
+@Component
+@Slf4j
+public class PdfReportCache {
+
+    private final Map<ReportKey, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final long maxBytes;
+
+    private long usedBytes;
+
+    public PdfReportCache(@Value("${pdf.cache.max-size}") DataSize maxSize) {
+        this.maxBytes = maxSize.toBytes();
+    }
+
+    public synchronized byte[] get(ReportKey key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(ReportKey key, byte[] content) {
+        if (content.length > maxBytes) {
+            log.debug("Report {} is larger than the cache, not cached", key);
+            return;
+        }
+
+        // Older versions of the same report can never be served again
+        entries.entrySet().removeIf(entry -> {
+            boolean stale = entry.getKey().report().equals(key.report()) && entry.getKey().version() <= key.version();
+            if (stale) {
+                usedBytes -= entry.getValue().length;
+            }
+            return stale;
+        });
+
+        entries.put(key, content);
+        usedBytes += content.length;
+
+        Iterator<Map.Entry<ReportKey, byte[]>> eldest = entries.entrySet().iterator();
+        while (usedBytes > maxBytes) {
+            Map.Entry<ReportKey, byte[]> entry = eldest.next();
+            usedBytes -= entry.getValue().length;
+            eldest.remove();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.asyncgeneratepdf.service;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
+import org.springframework.stereotype.Component;
+
+/**
+ * Process-wide iText resources shared by the documents of all reports.
+ * <p>
+ * The documents use iText's default font, Helvetica, whose font program iText already caches, so no font is kept
+ * here. The styles are never modified after construction and only read by the documents, so they are shared between
+ * the rendering threads.
+ */
+@Component
+public class PdfResources {
+
+    private final Style listStyle;
+
+    public PdfResources() {
+        this.listStyle = new Style().setFontSize(12);
+    }
+
+    /**
+     * A new A4 document using the default font.
+     */
+    public Document newDocument(PdfDocument pdf) {
+        return new Document(pdf, PageSize.A4);
+    }
+
+    public Style getListStyle() {
+        return listStyle;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.asyncgeneratepdf.service;
+
+/**
+ * Identifies a rendered report: the report name and the version of the city table it was rendered from.
+ */
+public record ReportKey(String report, long version) {
+}
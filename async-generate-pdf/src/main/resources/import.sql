@@ -9,4 +9,5 @@ INSERT INTO t_city(name, population) VALUES('Suzhou', 4327066);
 INSERT INTO t_city(name, population) VALUES('Zhengzhou', 4122087);
 INSERT INTO t_city(name, population) VALUES('Berlin', 3671000);
 INSERT INTO t_city(name, population) VALUES('Brest', 139163);
-INSERT INTO t_city(name, population) VALUES('Bucharest', 1836000);
\ No newline at end of file
+INSERT INTO t_city(name, population) VALUES('Bucharest', 1836000);
+INSERT INTO t_city_version(id, version) VALUES(1, 0);
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.example.asyncgeneratepdf.controller;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CityControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void streamsPdf() throws Exception {
+        MockHttpServletResponse response = stream(get("/cities/pdf/stream"));
+
+        assertEquals(MediaType.APPLICATION_PDF_VALUE, response.getContentType());
+        assertTrue(pdfText(response.getContentAsByteArray()).contains("1. Bratislava, population 432000"));
+    }
+
+    @Test
+    void exportsTheFormatOfTheAcceptHeader() throws Exception {
+        MockHttpServletResponse csv = stream(get("/cities/export").header(HttpHeaders.ACCEPT, "*/*, text/csv"));
+        assertEquals("text/csv", csv.getContentType());
+        assertTrue(csv.getContentAsString(StandardCharsets.UTF_8).startsWith("name,population\nBratislava,432000\n"));
+
+        MockHttpServletResponse ndjson = stream(get("/cities/export")
+                .header(HttpHeaders.ACCEPT, "application/x-ndjson, text/csv;q=0.5"));
+        assertEquals("application/x-ndjson", ndjson.getContentType());
+        assertTrue(ndjson.getContentAsString(StandardCharsets.UTF_8)
+                .startsWith("{\"name\":\"Bratislava\",\"population\":432000}\n"));
+
+        MockHttpServletResponse pdf = stream(get("/cities/export"));
+        assertEquals(MediaType.APPLICATION_PDF_VALUE, pdf.getContentType());
+        assertTrue(pdfText(pdf.getContentAsByteArray()).contains("1. Bratislava, population 432000"));
+    }
+
+    @Test
+    void rejectsUnacceptableExport() throws Exception {
+        mockMvc.perform(get("/cities/export").header(HttpHeaders.ACCEPT, "image/png"))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    /**
+     * Perform the request and wait for the streamed response to complete.
+     */
+    private MockHttpServletResponse stream(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+        result.getAsyncResult(10_000);
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+    }
+
+    private String pdfText(byte[] bytes) throws IOException {
+        StringBuilder text = new StringBuilder();
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(bytes)))) {
+            for (int page = 1; page <= pdf.getNumberOfPages(); page++) {
+                text.append(PdfTextExtractor.getTextFromPage(pdf.getPage(page))).append('\n');
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.asyncgeneratepdf.executor;
+
+import com.example.asyncgeneratepdf.exception.PdfRenderRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlledExecutorTest {
+
+    private final ThreadPoolTaskExecutor threadPool = new ThreadPoolTaskExecutor();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void shutdown() {
+        threadPool.shutdown();
+    }
+
+    @Test
+    void rejectsWhenEstimatedWaitExceedsMaxWait() throws Exception {
+        threadPool.setCorePoolSize(1);
+        threadPool.initialize();
+        AdmissionControlledExecutor executor =
+                new AdmissionControlledExecutor(threadPool, 1, Duration.ofMillis(100), Duration.ZERO, meterRegistry);
+
+        // Learn the run time, nothing is queued yet so the task is admitted
+        executor.submit(() -> sleep(300)).get();
+        assertEquals(Duration.ZERO, executor.estimateWait());
+
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> await(release));
+
+        PdfRenderRejectedException ex = assertThrows(PdfRenderRejectedException.class, () -> executor.execute(() -> {
+        }));
+        assertTrue(ex.getEstimatedWait().toMillis() >= 300);
+        release.countDown();
+
+        assertEquals(2, meterRegistry.counter("pdf.admission.admitted").count());
+        assertEquals(1, meterRegistry.counter("pdf.admission.rejected").count());
+    }
+
+    @Test
+    void limitsBurstBeforeTheFirstTaskFinished() {
+        threadPool.setCorePoolSize(2);
+        threadPool.initialize();
+        AdmissionControlledExecutor executor =
+                new AdmissionControlledExecutor(threadPool, 2, Duration.ofSeconds(2), Duration.ofSeconds(1),
+                        meterRegistry);
+
+        CountDownLatch release = new CountDownLatch(1);
+        int admitted = 0;
+        try {
+            while (admitted < 100) {
+                executor.execute(() -> await(release));
+                admitted++;
+            }
+        } catch (PdfRenderRejectedException e) {
+            assertTrue(e.getEstimatedWait().compareTo(Duration.ofSeconds(2)) > 0);
+        } finally {
+            release.countDown();
+        }
+        // Two run on the threads and two rounds of two wait, at the initial run time of 1s
+        assertEquals(6, admitted);
+    }
+
+    @Test
+    void recordsQueueWaitAndTaskGauges() throws Exception {
+        threadPool.setCorePoolSize(1);
+        threadPool.initialize();
+        AdmissionControlledExecutor executor =
+                new AdmissionControlledExecutor(threadPool, 1, Duration.ofSeconds(10), Duration.ofSeconds(1),
+                        meterRegistry);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        started.await();
+        Future<?> queuedTask = executor.submit(() -> {
+        });
+        assertEquals(1, meterRegistry.get("pdf.executor.queued").gauge().value());
+        assertEquals(1, meterRegistry.get("pdf.executor.active").gauge().value());
+
+        release.countDown();
+        queuedTask.get();
+        assertEquals(2, meterRegistry.get("pdf.executor.queue.wait").timer().count());
+        assertEquals(0, meterRegistry.get("pdf.executor.queued").gauge().value());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.asyncgeneratepdf.export;
+
+import com.example.asyncgeneratepdf.dto.CityRow;
+import com.example.asyncgeneratepdf.service.CityPdfWriter;
+import com.example.asyncgeneratepdf.service.PdfResources;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CityExporterTest {
+
+    private final CityExporterRegistry registry = new CityExporterRegistry(List.of(
+            new PdfCityExporter(new CityPdfWriter(ForkJoinPool.commonPool(), 0, new PdfResources())),
+            new CsvCityExporter(),
+            new NdjsonCityExporter(new ObjectMapper())));
+
+    @Test
+    void selectsByAcceptHeader() throws Exception {
+        assertEquals(MediaType.APPLICATION_PDF, select("*/*").getMediaType());
+        assertEquals("csv", select("text/*").getFileExtension());
+        assertEquals("csv", select("*/*, text/csv").getFileExtension());
+        assertEquals("ndjson", select("text/*, */*, application/x-ndjson").getFileExtension());
+        assertEquals("pdf", select("*/*, text/csv;q=0.5").getFileExtension());
+        assertEquals("ndjson", select("text/csv;q=0.5, application/x-ndjson").getFileExtension());
+        assertEquals("csv", select("application/x-ndjson;q=0, text/csv").getFileExtension());
+        assertThrows(HttpMediaTypeNotAcceptableException.class, () -> select("image/png"));
+    }
+
+    @Test
+    void csvAndNdjson() throws Exception {
+        assertEquals("name,population\nVienna,1897000\n\"Klagenfurt, Carinthia\",101000\n",
+                export(select("text/csv")));
+        assertEquals("{\"name\":\"Vienna\",\"population\":1897000}\n"
+                        + "{\"name\":\"Klagenfurt, Carinthia\",\"population\":101000}\n",
+                export(select("application/x-ndjson")));
+    }
+
+    private CityExporter select(String accept) throws HttpMediaTypeNotAcceptableException {
+        return registry.select(MediaType.parseMediaTypes(accept));
+    }
+
+    private String export(CityExporter exporter) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(Stream.of(new CityRow("Vienna", 1897000), new CityRow("Klagenfurt, Carinthia", 101000)), out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
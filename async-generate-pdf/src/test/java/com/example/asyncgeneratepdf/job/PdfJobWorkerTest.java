@@ -0,0 +1,103 @@
+package com.example.asyncgeneratepdf.job;
+
+import com.example.asyncgeneratepdf.repository.PdfJobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class PdfJobWorkerTest {
+
+    @Autowired
+    private PdfJobService pdfJobService;
+
+    @Autowired
+    private PdfJobWorker pdfJobWorker;
+
+    @Autowired
+    private PdfJobRepository pdfJobRepository;
+
+    @Autowired
+    private PdfJobResults pdfJobResults;
+
+    @Test
+    void submittedJobCompletes() throws Exception {
+        PdfJob job = awaitFinished(pdfJobService.submit().getId());
+
+        assertEquals(PdfJobStatus.COMPLETED, job.getStatus());
+        assertEquals(1, job.getAttempts());
+        assertEquals(job.getResultSize(), Files.size(pdfJobResults.path(job.getId())));
+    }
+
+    @Test
+    void jobOfLostWorkerIsRequeued() throws Exception {
+        String id = claimedByLostWorker(1);
+
+        pdfJobWorker.requeueStale();
+        PdfJob job = awaitFinished(id);
+
+        assertEquals(PdfJobStatus.COMPLETED, job.getStatus());
+        assertEquals(2, job.getAttempts());
+    }
+
+    @Test
+    void jobOfLostWorkerFailsWithoutAttemptsLeft() throws Exception {
+        String id = claimedByLostWorker(3);
+
+        pdfJobWorker.requeueStale();
+        PdfJob job = awaitFinished(id);
+
+        assertEquals(PdfJobStatus.FAILED, job.getStatus());
+        assertEquals(3, job.getAttempts());
+    }
+
+    @Test
+    void requeuedJobKeepsItsAttempts() throws Exception {
+        String id = claimed("stopping-worker", 1, Instant.now());
+
+        pdfJobRepository.requeue(id, "stopping-worker");
+        PdfJob job = awaitFinished(id);
+
+        assertEquals(PdfJobStatus.COMPLETED, job.getStatus());
+        assertEquals(1, job.getAttempts());
+    }
+
+    @Test
+    void errorFitsTheColumn() {
+        assertEquals("java.lang.IllegalStateException", PdfJobWorker.describe(new IllegalStateException()));
+        assertEquals("disk full", PdfJobWorker.describe(new IOException("disk full")));
+        assertEquals(PdfJob.MAX_ERROR_LENGTH, PdfJobWorker.describe(new RuntimeException("x".repeat(5000))).length());
+    }
+
+    private String claimedByLostWorker(int attempts) {
+        return claimed("lost-worker", attempts, Instant.now().minus(Duration.ofHours(1)));
+    }
+
+    private String claimed(String worker, int attempts, Instant heartbeatAt) {
+        PdfJob job = new PdfJob(UUID.randomUUID().toString(), Instant.now());
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            job.claim(worker, Instant.now());
+        }
+        pdfJobRepository.save(job);
+        pdfJobRepository.heartbeat(job.getId(), worker, heartbeatAt, 0, 0);
+        return job.getId();
+    }
+
+    private PdfJob awaitFinished(String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        PdfJob job = pdfJobService.find(id);
+        while (!job.getStatus().isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            job = pdfJobService.find(id);
+        }
+        return job;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.asyncgeneratepdf.output;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportSpillStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keepsSmallReportInMemory() throws Exception {
+        ReportSpillStore store = newStore();
+        SpillingOutputStream out = store.newOutputStream();
+        out.write(new byte[512]);
+
+        ReportContent content = out.toContent();
+        assertInstanceOf(InMemoryReportContent.class, content);
+        assertEquals(512, content.size());
+    }
+
+    @Test
+    void spillsLargeReportAndReapsItOnceReleased() throws Exception {
+        ReportSpillStore store = newStore();
+        byte[] bytes = new byte[5000];
+        Arrays.fill(bytes, (byte) 'x');
+        SpillingOutputStream out = store.newOutputStream();
+        out.write(bytes, 0, 600);
+        out.write(bytes, 600, 4400);
+
+        FileReportContent content = assertInstanceOf(FileReportContent.class, out.toContent());
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        content.writeTo(written);
+        assertArrayEquals(bytes, written.toByteArray());
+
+        assertTrue(content.retain());
+        content.release();
+        store.reap();
+        assertTrue(Files.exists(content.getPath()));
+
+        content.release();
+        assertFalse(content.retain());
+        Thread.sleep(5);
+        store.reap();
+        assertFalse(Files.exists(content.getPath()));
+    }
+
+    @Test
+    void reapsOnlyOrphansByAge() throws Exception {
+        ReportSpillStore store = new ReportSpillStore(directory, DataSize.ofKilobytes(1), Duration.ofHours(1),
+                Duration.ofMinutes(1));
+        SpillingOutputStream out = store.newOutputStream();
+        out.write(new byte[2000]);
+        FileReportContent live = assertInstanceOf(FileReportContent.class, out.toContent());
+        Path orphan = Files.createFile(directory.resolve("report-orphan.tmp"));
+        FileTime expired = FileTime.from(Instant.now().minus(Duration.ofHours(2)));
+        Files.setLastModifiedTime(live.getPath(), expired);
+        Files.setLastModifiedTime(orphan, expired);
+
+        store.reap();
+        assertTrue(Files.exists(live.getPath()));
+        assertFalse(Files.exists(orphan));
+
+        // Released files wait for the release delay, not for the maximum age
+        live.release();
+        store.reap();
+        assertTrue(Files.exists(live.getPath()));
+    }
+
+    private ReportSpillStore newStore() {
+        return new ReportSpillStore(directory, DataSize.ofKilobytes(1), Duration.ZERO, Duration.ofHours(1));
+    }
+}
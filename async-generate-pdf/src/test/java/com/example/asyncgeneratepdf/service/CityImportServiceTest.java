@@ -0,0 +1,107 @@
+package com.example.asyncgeneratepdf.service;
+
+import com.example.asyncgeneratepdf.dto.CityImportResult;
+import com.example.asyncgeneratepdf.dto.CityRow;
+import com.example.asyncgeneratepdf.entity.City;
+import com.example.asyncgeneratepdf.exception.InvalidCityImportException;
+import com.example.asyncgeneratepdf.export.CsvCityExporter;
+import com.example.asyncgeneratepdf.repository.CityRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"cities.import.chunk-size=2", "cities.import.batch-size=2"})
+class CityImportServiceTest {
+
+    @Autowired
+    private CityImportService cityImportService;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private CityTableVersion cityTableVersion;
+
+    @Test
+    void importCsvInChunks() {
+        long cities = cityRepository.count();
+        long version = cityTableVersion.get();
+
+        CityImportResult result = cityImportService.importCsv(input("""
+                name,population
+                Salzburg,155000
+                "Klagenfurt, Carinthia",101000
+
+                Innsbruck,131000
+                """));
+
+        assertEquals(3, result.getImportedRows());
+        assertEquals(2, result.getChunks());
+        assertEquals(cities + 3, cityRepository.count());
+        assertEquals(version + 2, cityTableVersion.get());
+    }
+
+    @Test
+    void importNdjson() {
+        long cities = cityRepository.count();
+
+        CityImportResult result = cityImportService.importNdjson(input("""
+                {"name": "Bregenz", "population": 29000}
+                {"name": "Eisenstadt", "population": 15000}
+                """));
+
+        assertEquals(2, result.getImportedRows());
+        assertEquals(cities + 2, cityRepository.count());
+    }
+
+    @Test
+    void invalidLineKeepsCommittedChunks() {
+        long cities = cityRepository.count();
+
+        InvalidCityImportException ex = assertThrows(InvalidCityImportException.class,
+                () -> cityImportService.importCsv(input("Wels,62000\nVillach,63000\nSteyr,many\n")));
+
+        assertTrue(ex.getMessage().startsWith("Line 3:"));
+        assertEquals(cities + 2, cityRepository.count());
+    }
+
+    @Test
+    void reimportsExportedCsv() {
+        List<CityRow> exported = List.of(
+                new CityRow("Sankt Pölten", 55000),
+                new CityRow("Wiener\nNeustadt", 46000),
+                new CityRow("Linz, \"Upper\r\nAustria\"", 207000));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CsvCityExporter().export(exported.stream(), out);
+        List<City> before = cityRepository.findAll();
+
+        CityImportResult result = cityImportService.importCsv(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(3, result.getImportedRows());
+        List<CityRow> imported = cityRepository.findAll().stream()
+                .filter(city -> !before.contains(city))
+                .map(city -> new CityRow(city.getName(), city.getPopulation()))
+                .toList();
+        assertEquals(exported, imported);
+    }
+
+    @Test
+    void unclosedQuoteIsInvalid() {
+        InvalidCityImportException ex = assertThrows(InvalidCityImportException.class,
+                () -> cityImportService.importCsv(input("Graz,291000\n\"Leoben,24000\n")));
+
+        assertTrue(ex.getMessage().startsWith("Line 2:"));
+    }
+
+    private InputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.asyncgeneratepdf.service;
+
+import com.example.asyncgeneratepdf.dto.CityRow;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CityPdfWriterTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void partitionedNumberingIsContinuous() throws IOException {
+        CityPdfWriter writer = new CityPdfWriter(pool, 1000, new PdfResources());
+        AtomicLong progress = new AtomicLong();
+
+        String text = render(writer, cities(2500), progress);
+
+        assertTrue(text.contains("1. City 1, population 1000"));
+        assertTrue(text.contains("1001. City 1001, population 1001000"));
+        assertTrue(text.contains("2500. City 2500, population 2500000"));
+        assertEquals(2500, progress.get());
+    }
+
+    @Test
+    void singlePartition() throws IOException {
+        CityPdfWriter writer = new CityPdfWriter(pool, 1000, new PdfResources());
+
+        String text = render(writer, cities(12), new AtomicLong());
+
+        assertTrue(text.contains("12. City 12, population 12000"));
+    }
+
+    private String render(CityPdfWriter writer, Stream<CityRow> cities, AtomicLong progress) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writer.write(cities, baos, progress::set);
+
+        StringBuilder text = new StringBuilder();
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())))) {
+            for (int page = 1; page <= pdf.getNumberOfPages(); page++) {
+                text.append(PdfTextExtractor.getTextFromPage(pdf.getPage(page))).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    private Stream<CityRow> cities(int count) {
+        return LongStream.rangeClosed(1, count).mapToObj(id -> new CityRow("City " + id, (int) id * 1000));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.asyncgeneratepdf.service;
+
+import com.example.asyncgeneratepdf.entity.City;
+import com.example.asyncgeneratepdf.output.FileReportContent;
+import com.example.asyncgeneratepdf.repository.CityRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// A threshold below the size of the report spills it, large reports are pre-rendered as well
+@SpringBootTest(properties = {"pdf.prerender.debounce=200ms", "pdf.spill.threshold=1KB"})
+class CityReportPreRendererTest {
+
+    @Autowired
+    private CityReportPreRenderer cityReportPreRenderer;
+
+    @Autowired
+    private CityTableVersion cityTableVersion;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Test
+    void reportIsRebuiltAfterChanges() throws Exception {
+        assertTrue(await(() -> cityReportPreRenderer.currentETag() != null));
+        String before = cityReportPreRenderer.currentETag();
+
+        cityRepository.save(new City(null, "Graz", 291000));
+        cityRepository.save(new City(null, "Linz", 207000));
+        // The previous report is served until the rebuild is published
+        assertEquals(before, cityReportPreRenderer.currentETag());
+
+        String expected = cityTableVersion.toETag(cityTableVersion.get());
+        assertTrue(await(() -> expected.equals(cityReportPreRenderer.currentETag())));
+
+        CityReportPreRenderer.PreRenderedReport report = cityReportPreRenderer.current();
+        assertInstanceOf(FileReportContent.class, report.content());
+        assertTrue(report.content().size() > 0);
+        report.content().release();
+    }
+
+    private boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(50);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.asyncgeneratepdf.service;
+
+import com.example.asyncgeneratepdf.entity.City;
+import com.example.asyncgeneratepdf.repository.CityRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@RecordApplicationEvents
+class CityTableVersionTest {
+
+    @Autowired
+    private CityTableVersion cityTableVersion;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @Test
+    void versionChangesWithCities() {
+        long before = cityTableVersion.get();
+
+        City city = cityRepository.save(new City(null, "Vienna", 1897000));
+        long afterInsert = cityTableVersion.get();
+        assertTrue(afterInsert > before);
+
+        cityRepository.delete(city);
+        assertTrue(cityTableVersion.get() > afterInsert);
+        assertNotEquals(cityTableVersion.toETag(before), cityTableVersion.toETag(cityTableVersion.get()));
+    }
+
+    @Test
+    void versionIsBumpedOncePerCommittedTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long before = cityTableVersion.get();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            cityRepository.save(new City(null, "Graz", 291000));
+            cityRepository.save(new City(null, "Linz", 207000));
+        });
+        assertEquals(before + 1, cityTableVersion.get());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            cityRepository.save(new City(null, "Salzburg", 155000));
+            status.setRollbackOnly();
+        });
+        cityTableVersion.refresh();
+        assertEquals(before + 1, cityTableVersion.get());
+    }
+
+    @Test
+    void changeOfAnotherInstanceIsPickedUp() {
+        long before = cityTableVersion.get();
+
+        // Another instance shares the database and bumps the row
+        jdbcTemplate.update("update t_city_version set version = version + 1 where id = 1");
+        cityTableVersion.refresh();
+
+        assertEquals(before + 1, cityTableVersion.get());
+        assertTrue(applicationEvents.stream(CityTableChangedEvent.class)
+                .anyMatch(event -> event.version() == before + 1));
+    }
+}
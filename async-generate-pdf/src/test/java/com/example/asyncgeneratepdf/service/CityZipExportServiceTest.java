@@ -0,0 +1,87 @@
+package com.example.asyncgeneratepdf.service;
+
+import com.example.asyncgeneratepdf.dto.CityReportSpec;
+import com.example.asyncgeneratepdf.dto.CityRow;
+import com.example.asyncgeneratepdf.exception.InvalidReportSpecException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CityZipExportServiceTest {
+
+    @Autowired
+    private CityZipExportService cityZipExportService;
+
+    @Autowired
+    private CityStreamService cityStreamService;
+
+    @Test
+    void readsCitiesMatchingSpec() {
+        List<String> names = new ArrayList<>();
+        cityStreamService.readCities(new CityReportSpec("small-b", "B", null, 1_000_000),
+                cities -> cities.map(CityRow::name).forEach(names::add));
+
+        assertEquals(List.of("Bratislava", "Brest"), names);
+    }
+
+    @Test
+    void exportsOneEntryPerSpec() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cityZipExportService.export(List.of(
+                new CityReportSpec("all", null, null, null),
+                new CityReportSpec("large", null, 4_000_000, null)), out).join();
+
+        Set<String> entries = new HashSet<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.add(entry.getName());
+                assertTrue(new String(zip.readAllBytes(), 0, 5).startsWith("%PDF-"));
+            }
+        }
+        assertEquals(Set.of("all.pdf", "large.pdf"), entries);
+    }
+
+    @Test
+    void writesEntriesOffThePdfThreads() throws Exception {
+        Set<String> writers = ConcurrentHashMap.newKeySet();
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) {
+                writers.add(Thread.currentThread().getName());
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                writers.add(Thread.currentThread().getName());
+            }
+        };
+        cityZipExportService.export(List.of(
+                new CityReportSpec("all", null, null, null),
+                new CityReportSpec("b-cities", "B", null, null)), out).join();
+
+        assertFalse(writers.isEmpty());
+        assertTrue(writers.stream().allMatch(name -> name.startsWith("mvc-async-")), writers.toString());
+    }
+
+    @Test
+    void rejectsDuplicateNames() {
+        List<CityReportSpec> specs = List.of(new CityReportSpec("all", null, null, null),
+                new CityReportSpec("all", "B", null, null));
+        assertThrows(InvalidReportSpecException.class,
+                () -> cityZipExportService.export(specs, new ByteArrayOutputStream()));
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.asyncgeneratepdf.service;
+
+import com.example.asyncgeneratepdf.dto.CityRow;
+import com.example.asyncgeneratepdf.output.FileReportContent;
+import com.example.asyncgeneratepdf.output.ReportContent;
+import com.example.asyncgeneratepdf.output.ReportSpillStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfGeneratingServiceTest {
+
+    private static final int REQUESTS = 8;
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService renderExecutor = Executors.newSingleThreadExecutor();
+
+    private final ExecutorService requestExecutor = Executors.newFixedThreadPool(REQUESTS);
+
+    @AfterEach
+    void tearDown() {
+        renderExecutor.shutdownNow();
+        requestExecutor.shutdownNow();
+    }
+
+    @Test
+    void coalescesConcurrentRequestsIntoOneRender() throws Exception {
+        BlockingCityStreamService cityStreamService = new BlockingCityStreamService();
+        // A threshold below the size of the PDF spills it, so the release of the content deletes a file
+        ReportSpillStore spillStore = new ReportSpillStore(directory, DataSize.ofBytes(256), Duration.ZERO,
+                Duration.ofHours(1));
+        PdfGeneratingService service = new PdfGeneratingService(cityStreamService,
+                new CityPdfWriter(ForkJoinPool.commonPool(), 0, new PdfResources()), spillStore, renderExecutor,
+                meterRegistry);
+        ReportKey key = new ReportKey("cities", 1);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CompletableFuture<ReportContent>>> submitted = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            submitted.add(requestExecutor.submit(() -> {
+                start.await();
+                return service.generatePdf(key);
+            }));
+        }
+        start.countDown();
+        List<CompletableFuture<ReportContent>> requests = new ArrayList<>();
+        for (Future<CompletableFuture<ReportContent>> future : submitted) {
+            requests.add(future.get(5, TimeUnit.SECONDS));
+        }
+        // Every request joined before the render finishes
+        cityStreamService.release.countDown();
+
+        List<ReportContent> contents = new ArrayList<>();
+        for (CompletableFuture<ReportContent> request : requests) {
+            contents.add(request.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, cityStreamService.renders.get());
+        assertEquals(REQUESTS - 1, meterRegistry.get("pdf.render.coalesced").counter().count());
+        assertEquals(REQUESTS, meterRegistry.get("pdf.render.requests").summary().max());
+
+        FileReportContent content = assertInstanceOf(FileReportContent.class, contents.get(0));
+        contents.forEach(other -> assertSame(content, other));
+        for (int i = 0; i < REQUESTS - 1; i++) {
+            contents.get(i).release();
+        }
+        spillStore.reap();
+        assertTrue(Files.exists(content.getPath()));
+
+        contents.get(REQUESTS - 1).release();
+        assertFalse(content.retain());
+        Thread.sleep(5);
+        spillStore.reap();
+        assertFalse(Files.exists(content.getPath()));
+    }
+
+    @Test
+    void rendersAgainOnceTheRenderInFlightIsDone() throws Exception {
+        BlockingCityStreamService cityStreamService = new BlockingCityStreamService();
+        cityStreamService.release.countDown();
+        ReportSpillStore spillStore = new ReportSpillStore(directory, DataSize.ofKilobytes(64), Duration.ZERO,
+                Duration.ofHours(1));
+        PdfGeneratingService service = new PdfGeneratingService(cityStreamService,
+                new CityPdfWriter(ForkJoinPool.commonPool(), 0, new PdfResources()), spillStore, renderExecutor,
+                meterRegistry);
+        ReportKey key = new ReportKey("cities", 1);
+
+        service.generatePdf(key).get(10, TimeUnit.SECONDS).release();
+        service.generatePdf(key).get(10, TimeUnit.SECONDS).release();
+
+        assertEquals(2, cityStreamService.renders.get());
+        assertEquals(0, meterRegistry.get("pdf.render.coalesced").counter().count());
+    }
+
+    /**
+     * Hands out generated cities instead of reading the database, and holds the renders until released.
+     */
+    private class BlockingCityStreamService extends CityStreamService {
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger renders = new AtomicInteger();
+
+        private BlockingCityStreamService() {
+            super(null, meterRegistry);
+        }
+
+        @Override
+        public void readCities(Consumer<Stream<CityRow>> reader) {
+            renders.incrementAndGet();
+            try {
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            reader.accept(IntStream.range(0, 100).mapToObj(i -> new CityRow("City " + i, i * 1000)));
+        }
+    }
+}